@@ -0,0 +1,73 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Deterministic LogEvent JSON in the shape NewEntryDialog sends, shared by the pipeline benchmarks
+final class BenchmarkEvents {
+    static final String[] SOURCES = {"app", "network", "storage", "ui", "auth", "sync", "camera", "bluetooth"};
+    static final String[] CATEGORIES = {"app.lifecycle", "app.net.http", "app.net.websocket", "app.storage.db", "app.ui.render", "app.auth"};
+    static final int[] LEVELS = {1, 2, 4, 4, 4, 8, 16, 32, 64, 128};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkEvents() {
+    }
+
+    // payload: "small" (header fields only), "largeData" (~16 KB nested data) or "stacktrace" (40 frames)
+    static String message(String payload, int index, long timestamp) {
+        Random random = new Random(index);
+        Map<String, Object> event = new HashMap<>();
+        event.put("id", "bench-" + index);
+        event.put("level", LEVELS[index % LEVELS.length]);
+        event.put("category", CATEGORIES[index % CATEGORIES.length]);
+        event.put("description", "Request " + index + " completed in " + random.nextInt(500) + "ms with status " + (200 + random.nextInt(4) * 100));
+        event.put("timestamp", timestamp);
+        event.put("source", SOURCES[index % SOURCES.length]);
+        event.put("correlationId", "corr-" + (index % 32));
+        event.put("title", "Event " + index);
+        event.put("code", 1000 + index % 50);
+        event.put("deviceId", "device-" + (index % 4));
+        event.put("includeStacktrace", "stacktrace".equals(payload));
+        event.put("destinationFilter", Map.of("include", Arrays.asList(4, 7)));
+        if ("largeData".equals(payload)) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (int i = 0; i < 200; i++) {
+                data.put("field" + i, Map.of("value", random.nextLong(), "label", "label-" + i + "-" + random.nextInt(1000)));
+            }
+            event.put("data", data);
+        } else {
+            event.put("data", null);
+        }
+        if ("stacktrace".equals(payload)) {
+            List<Map<String, String>> stacktrace = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                stacktrace.add(Map.of("line", "com.example.app.module" + (i % 7) + ".Handler" + i + ".invoke(Handler" + i + ".java:" + (10 + i) + ")"));
+            }
+            event.put("stacktrace", stacktrace);
+        }
+        try {
+            return MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A processor holding `count` events with mixed payloads, timestamps one second apart ending now
+    static LogProcessor filledProcessor(int count) {
+        LogProcessor processor = new LogProcessor(() -> {}, new PipelineMetrics());
+        processor.setMaxLogs(count);
+        long start = System.currentTimeMillis() - count * 1000L;
+        for (int i = 0; i < count; i++) {
+            String payload = i % 10 == 0 ? "stacktrace" : i % 50 == 1 ? "largeData" : "small";
+            processor.processMessage(message(payload, i, start + i * 1000L), category -> {}, source -> {});
+        }
+        return processor;
+    }
+}
@@ -0,0 +1,115 @@
+package com.picoedge.ai_tools;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Copy Contents / Copy Diff on synthetic trees: time per operation, bytes per operation via the gc profiler
+// Each benchmark takes its own nested state so the parameters of one do not multiply the runs of another
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileProcessorBenchmark {
+    @State(Scope.Thread)
+    public static class CopyState {
+        @Param({"wide", "deep", "large", "nearIdentical"})
+        public String tree;
+
+        FileProcessor fileProcessor;
+        VirtualFile[] selection;
+
+        @Setup
+        public void setUp() {
+            fileProcessor = new FileProcessor(SyntheticTrees.BASE_PATH, new Properties());
+            selection = new VirtualFile[]{SyntheticTrees.build(tree)};
+        }
+    }
+
+    @Benchmark
+    public String processFiles(CopyState state) {
+        return state.fileProcessor.processFiles(state.selection);
+    }
+
+    @Benchmark
+    public String processFilesForDiff(CopyState state) {
+        return state.fileProcessor.processFilesForDiff(state.selection);
+    }
+
+    // Tree rendering alone, over the paths collected by a preceding Copy Contents pass
+    @State(Scope.Thread)
+    public static class TreeState {
+        @Param({"wide", "deep", "nearIdentical"})
+        public String tree;
+
+        FileProcessor fileProcessor;
+        List<String> paths;
+
+        @Setup
+        public void setUp() {
+            fileProcessor = new FileProcessor(SyntheticTrees.BASE_PATH, new Properties());
+            fileProcessor.processFiles(new VirtualFile[]{SyntheticTrees.build(tree)});
+            paths = new ArrayList<>();
+            collectPaths(SyntheticTrees.build(tree), paths);
+        }
+
+        private static void collectPaths(VirtualFile file, List<String> paths) {
+            if (file.isDirectory()) {
+                for (VirtualFile child : file.getChildren()) {
+                    collectPaths(child, paths);
+                }
+            } else {
+                paths.add(file.getPath().substring(SyntheticTrees.BASE_PATH.length() + 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public String buildAsciiTree(TreeState state) {
+        return state.fileProcessor.buildAsciiTree();
+    }
+
+    @Benchmark
+    public String findCommonPrefix(TreeState state) {
+        return state.fileProcessor.findCommonPrefix(state.paths);
+    }
+
+    // Line diff of one file against its .latest version with a change every `changeInterval` lines
+    @State(Scope.Thread)
+    public static class DiffState {
+        @Param({"1000", "20000"})
+        public int lines;
+
+        @Param({"10", "500"})
+        public int changeInterval;
+
+        FileProcessor fileProcessor;
+        String[] oldLines;
+        String[] newLines;
+
+        @Setup
+        public void setUp() {
+            fileProcessor = new FileProcessor(SyntheticTrees.BASE_PATH, new Properties());
+            String original = SyntheticTrees.javaSource("Diffed", lines, new Random(7));
+            oldLines = original.split("\n", -1);
+            newLines = oldLines.clone();
+            for (int i = 3; i < newLines.length - 2; i += changeInterval) {
+                newLines[i] = newLines[i] + " // changed";
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileProcessor.DiffHunk> computeMinimalDiffHunks(DiffState state) {
+        return state.fileProcessor.computeMinimalDiffHunks(state.oldLines, state.newLines);
+    }
+}
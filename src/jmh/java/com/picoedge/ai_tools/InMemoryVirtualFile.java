@@ -0,0 +1,129 @@
+package com.picoedge.ai_tools;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileSystem;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read-only VirtualFile over byte arrays so FileProcessor can be benchmarked without an IDE or disk I/O
+final class InMemoryVirtualFile extends VirtualFile {
+    private static final VirtualFile[] NO_CHILDREN = new VirtualFile[0];
+
+    private final String name;
+    private final String path;
+    private final InMemoryVirtualFile parent;
+    private final byte[] content; // null for directories
+    private final Map<String, InMemoryVirtualFile> children = new LinkedHashMap<>();
+    private VirtualFile[] childArray = NO_CHILDREN;
+
+    private InMemoryVirtualFile(String name, InMemoryVirtualFile parent, byte[] content) {
+        this.name = name;
+        this.path = parent == null ? name : parent.path + "/" + name;
+        this.parent = parent;
+        this.content = content;
+    }
+
+    static InMemoryVirtualFile root(String path) {
+        return new InMemoryVirtualFile(path, null, null);
+    }
+
+    InMemoryVirtualFile addDirectory(String childName) {
+        return add(new InMemoryVirtualFile(childName, this, null));
+    }
+
+    InMemoryVirtualFile addFile(String childName, String text) {
+        return add(new InMemoryVirtualFile(childName, this, text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private InMemoryVirtualFile add(InMemoryVirtualFile child) {
+        children.put(child.name, child);
+        childArray = children.values().toArray(NO_CHILDREN);
+        return child;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public VirtualFileSystem getFileSystem() {
+        return null; // Not backed by any VFS; FileProcessor never asks for it
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return false;
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return content == null;
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    @Override
+    public VirtualFile getParent() {
+        return parent;
+    }
+
+    @Override
+    public VirtualFile[] getChildren() {
+        return childArray;
+    }
+
+    // O(1) lookup, as the real VFS does for cached directories, so diff lookups of .latest siblings are not skewed
+    @Override
+    public VirtualFile findChild(String childName) {
+        return children.get(childName);
+    }
+
+    @Override
+    public OutputStream getOutputStream(Object requestor, long newModificationStamp, long newTimeStamp) throws IOException {
+        throw new IOException("In-memory benchmark files are read-only: " + path);
+    }
+
+    @Override
+    public byte[] contentsToByteArray() throws IOException {
+        if (content == null) {
+            throw new IOException("Not a file: " + path);
+        }
+        return content;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return 0;
+    }
+
+    @Override
+    public long getLength() {
+        return content == null ? 0 : content.length;
+    }
+
+    @Override
+    public void refresh(boolean asynchronous, boolean recursive, Runnable postRunnable) {
+        if (postRunnable != null) {
+            postRunnable.run();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ByteArrayInputStream(contentsToByteArray());
+    }
+}
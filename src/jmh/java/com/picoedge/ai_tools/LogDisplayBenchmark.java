@@ -0,0 +1,50 @@
+package com.picoedge.ai_tools;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Full-view HTML generation and the Markdown text behind Copy Logs
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LogDisplayBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int eventCount;
+
+    private final LogDisplay logDisplay = new LogDisplay();
+    private List<LogProcessor.LogEvent> logs;
+
+    @Setup
+    public void setUp() {
+        logs = BenchmarkEvents.filledProcessor(eventCount).getAllLogs();
+    }
+
+    // Steady state: every event's fragment is already cached, as after the first render
+    @Benchmark
+    public String generateLogHtmlCached() {
+        return logDisplay.generateLogHtml(logs);
+    }
+
+    // First render: every fragment is built from scratch
+    @Benchmark
+    public String generateLogHtmlUncached() {
+        for (LogProcessor.LogEvent event : logs) {
+            event.renderedHeader = null;
+            event.renderedHtml = null;
+        }
+        return logDisplay.generateLogHtml(logs);
+    }
+
+    @Benchmark
+    public String formatLogs() {
+        return logDisplay.formatLogs(logs);
+    }
+}
@@ -0,0 +1,80 @@
+package com.picoedge.ai_tools;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// One full filter pass over the store, as done by a full view refresh, per buffer size and query type
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LogFilterBenchmark {
+    private static final Set<Integer> ALL_LEVELS = Set.of(1, 2, 4, 8, 16, 32, 64, 128);
+
+    @Param({"1000", "10000", "50000"})
+    public int bufferSize;
+
+    @Param({"none", "search", "level", "source", "category", "correlationId", "timeRange"})
+    public String query;
+
+    private final LogFilter logFilter = new LogFilter();
+    private List<LogProcessor.LogEvent> logs;
+    private Set<Integer> levels;
+    private Set<String> sources;
+    private boolean allSources;
+    private String category;
+    private String searchQuery;
+    private String correlationId;
+    private long[] timeRange;
+
+    @Setup
+    public void setUp() {
+        logs = BenchmarkEvents.filledProcessor(bufferSize).getAllLogs();
+        levels = ALL_LEVELS;
+        sources = new HashSet<>(List.of(BenchmarkEvents.SOURCES));
+        allSources = true;
+        category = "";
+        searchQuery = "";
+        correlationId = "";
+        long now = System.currentTimeMillis();
+        timeRange = new long[]{0, now};
+        switch (query) {
+            case "search":
+                searchQuery = "status 500";
+                break;
+            case "level":
+                levels = Set.of(16, 32, 64, 128);
+                break;
+            case "source":
+                sources = Set.of("network", "auth");
+                allSources = false;
+                break;
+            case "category":
+                category = "app.net";
+                break;
+            case "correlationId":
+                correlationId = "corr-7";
+                break;
+            case "timeRange":
+                timeRange = new long[]{now - 5 * 60 * 1000, now};
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Benchmark
+    public Collection<LogProcessor.LogEvent> filterLogs() {
+        return logFilter.filterLogs(logs, levels, sources, allSources, category, searchQuery, "", correlationId, timeRange);
+    }
+}
@@ -0,0 +1,46 @@
+package com.picoedge.ai_tools;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Ingest cost of one WebSocket message: JSON parse, dedup check and append to the bounded store
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LogProcessorBenchmark {
+    private static final int DISTINCT_MESSAGES = 4096;
+
+    @Param({"small", "largeData", "stacktrace"})
+    public String payload;
+
+    private LogProcessor processor;
+    private String[] messages;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        processor = new LogProcessor(() -> {}, new PipelineMetrics());
+        messages = new String[DISTINCT_MESSAGES];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+            messages[i] = BenchmarkEvents.message(payload, i, now + i);
+        }
+    }
+
+    @Benchmark
+    public void processMessage() {
+        processor.processMessage(messages[next], category -> {}, source -> {});
+        if (++next == DISTINCT_MESSAGES) {
+            // Forget the ids so the next pass is stored again instead of measuring the dedup shortcut
+            next = 0;
+            processor.clearProcessedEventIds();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.picoedge.ai_tools;
+
+import java.util.Random;
+
+// Deterministic project trees for the FileProcessor benchmarks, all rooted at BASE_PATH
+final class SyntheticTrees {
+    static final String BASE_PATH = "/bench/project";
+
+    private SyntheticTrees() {
+    }
+
+    // shape: "wide" (10k files in 100 packages), "deep" (50 nested levels), "large" (20 x 1 MB files) or
+    // "nearIdentical" (2k copies of one file, each with a .latest sibling that differs in a single line)
+    static InMemoryVirtualFile build(String shape) {
+        InMemoryVirtualFile root = InMemoryVirtualFile.root(BASE_PATH);
+        InMemoryVirtualFile src = root.addDirectory("src");
+        Random random = new Random(42);
+        switch (shape) {
+            case "wide":
+                for (int d = 0; d < 100; d++) {
+                    InMemoryVirtualFile dir = src.addDirectory("module" + d);
+                    for (int f = 0; f < 100; f++) {
+                        dir.addFile("Class" + f + ".java", javaSource("Class" + f, 60, random));
+                    }
+                }
+                break;
+            case "deep":
+                InMemoryVirtualFile dir = src;
+                for (int depth = 0; depth < 50; depth++) {
+                    dir = dir.addDirectory("level" + depth);
+                    for (int f = 0; f < 5; f++) {
+                        dir.addFile("Node" + f + ".kt", javaSource("Node" + f, 40, random));
+                    }
+                }
+                break;
+            case "large":
+                for (int f = 0; f < 20; f++) {
+                    src.addFile("Generated" + f + ".java", javaSource("Generated" + f, 16_000, random));
+                }
+                break;
+            case "nearIdentical":
+                String template = javaSource("Template", 200, random);
+                for (int d = 0; d < 20; d++) {
+                    InMemoryVirtualFile module = src.addDirectory("variant" + d);
+                    for (int f = 0; f < 100; f++) {
+                        String current = template.replace("Template", "Variant" + f);
+                        module.addFile("Variant" + f + ".ts", current);
+                        module.addFile("Variant" + f + ".ts.latest", editLine(current, f % 200));
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tree shape: " + shape);
+        }
+        return root;
+    }
+
+    static String javaSource(String className, int lines, Random random) {
+        StringBuilder source = new StringBuilder(lines * 64);
+        source.append("package com.example.bench;\n\npublic class ").append(className).append(" {\n");
+        for (int i = 0; i < lines; i++) {
+            source.append("    private static final long FIELD_").append(i).append(" = ").append(random.nextLong()).append("L; // line ").append(i).append('\n');
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    // Replaces one line so a diff against the original yields a single one-line hunk
+    static String editLine(String text, int line) {
+        String[] lines = text.split("\n", -1);
+        int target = Math.min(line + 3, lines.length - 2);
+        lines[target] = lines[target] + " // edited";
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,46 @@
+package com.picoedge.ai_tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// correlationId -> the stored events carrying it, in store order. LogProcessor keeps it in step with the store under
+// its allLogs lock. Appends add at the tail of their deque; the store evicts its oldest event, which is always the
+// head of its own deque, so eviction is O(1) too. A lookup costs the size of the trace, never the size of the store.
+class CorrelationIndex {
+    private final Map<String, ArrayDeque<LogProcessor.LogEvent>> eventsById = new HashMap<>();
+
+    void add(LogProcessor.LogEvent event) {
+        if (event.correlationId != null && !event.correlationId.isEmpty()) {
+            eventsById.computeIfAbsent(event.correlationId, id -> new ArrayDeque<>(4)).addLast(event);
+        }
+    }
+
+    void remove(LogProcessor.LogEvent evicted) {
+        if (evicted.correlationId == null) {
+            return;
+        }
+        ArrayDeque<LogProcessor.LogEvent> events = eventsById.get(evicted.correlationId);
+        if (events != null && events.peekFirst() == evicted) {
+            events.pollFirst();
+            if (events.isEmpty()) {
+                eventsById.remove(evicted.correlationId);
+            }
+        }
+    }
+
+    List<LogProcessor.LogEvent> get(String correlationId) {
+        ArrayDeque<LogProcessor.LogEvent> events = eventsById.get(correlationId);
+        return events != null ? new ArrayList<>(events) : new ArrayList<>();
+    }
+
+    int size() {
+        return eventsById.size();
+    }
+
+    void clear() {
+        eventsById.clear();
+    }
+}
@@ -0,0 +1,171 @@
+package com.picoedge.ai_tools;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.DefaultExtension;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.server.WebSocketServer;
+
+// Forwards frames from the local server to its connected clients. Each message is encoded into a WebSocket frame
+// once per negotiated draft and every client's outbound queue gets a duplicate() of that buffer, so N clients cost
+// one encode and N queue offers instead of N encodes. A client whose queue already holds maxQueuedFrames is handled
+// by the slow-consumer policy rather than letting its queue, and the plugin's heap, grow without bound.
+public class FanOutEngine {
+    private static final Logger LOGGER = Logger.getLogger(FanOutEngine.class.getName());
+    public static final int DEFAULT_MAX_QUEUED_FRAMES = 10000;
+
+    public enum SlowConsumerPolicy {
+        DROP,       // Skip frames for the client until its queue drains below half the limit
+        DISCONNECT  // Close the client with 1013 (try again later) so it can reconnect and catch up
+    }
+
+    private final WebSocketServer server;
+    private final ConcurrentHashMap<WebSocket, ClientState> clients = new ConcurrentHashMap<>();
+    private volatile int maxQueuedFrames = DEFAULT_MAX_QUEUED_FRAMES;
+    private volatile SlowConsumerPolicy policy = SlowConsumerPolicy.DROP;
+    final LongAdder framesEncoded = new LongAdder();
+    final LongAdder framesQueued = new LongAdder();
+    final LongAdder framesDropped = new LongAdder();
+    final LongAdder slowDisconnects = new LongAdder();
+    final LongAdder deliveriesFiltered = new LongAdder(); // Client deliveries saved by subscription filters
+
+    // Per-client degrade state; only touched by the thread that broadcasts to it, under its own monitor
+    private static final class ClientState {
+        boolean dropping = false;
+        long droppedInEpisode = 0;
+    }
+
+    public FanOutEngine(WebSocketServer server) {
+        this.server = server;
+    }
+
+    public void register(WebSocket conn) {
+        clients.put(conn, new ClientState());
+    }
+
+    public void unregister(WebSocket conn) {
+        ClientState state = clients.remove(conn);
+        if (state != null && state.droppedInEpisode > 0) {
+            LOGGER.info("[FanOutEngine] Client left while degraded: remoteAddress=" + conn.getRemoteSocketAddress() + ", dropped=" + state.droppedInEpisode);
+        }
+    }
+
+    // Returns the number of clients the message was queued for; exclude (may be null) is the connection it came from
+    public int broadcast(String message, WebSocket exclude, Collection<WebSocket> targets) {
+        Map<Draft, ByteBuffer> encodedByDraft = null;
+        int delivered = 0;
+        for (WebSocket conn : targets) {
+            if (conn == exclude || !conn.isOpen()) {
+                continue;
+            }
+            try {
+                Draft draft = conn.getDraft();
+                if (!(conn instanceof WebSocketImpl) || !isStateless(draft)) {
+                    conn.send(message); // A stateful extension such as permessage-deflate must encode per connection
+                    delivered++;
+                    continue;
+                }
+                WebSocketImpl impl = (WebSocketImpl) conn;
+                if (!admit(impl)) {
+                    continue;
+                }
+                if (encodedByDraft == null) {
+                    encodedByDraft = new HashMap<>(2); // Draft_6455 equality is by extension and protocol, so usually one entry
+                }
+                ByteBuffer frame = encodedByDraft.computeIfAbsent(draft, d -> encode(d, message));
+                impl.outQueue.offer(frame.duplicate());
+                server.onWriteDemand(impl);
+                framesQueued.increment();
+                delivered++;
+            } catch (CancelledKeyException e) {
+                LOGGER.fine(() -> "[FanOutEngine] Client closed during broadcast: remoteAddress=" + conn.getRemoteSocketAddress());
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "[FanOutEngine] Failed to forward message to client: " + conn.getRemoteSocketAddress() + ", error=" + e.getMessage(), e);
+            }
+        }
+        return delivered;
+    }
+
+    private static boolean isStateless(Draft draft) {
+        return draft instanceof Draft_6455 && ((Draft_6455) draft).getExtension() instanceof DefaultExtension;
+    }
+
+    private ByteBuffer encode(Draft draft, String message) {
+        framesEncoded.increment();
+        return draft.createBinaryFrame(draft.createFrames(message, false).get(0));
+    }
+
+    // Applies the slow-consumer policy; true when the frame may be queued for this client
+    private boolean admit(WebSocketImpl conn) {
+        int queued = conn.outQueue.size();
+        ClientState state = clients.get(conn);
+        if (state == null) {
+            return queued < maxQueuedFrames;
+        }
+        synchronized (state) {
+            if (state.dropping) {
+                if (queued > maxQueuedFrames / 2) {
+                    state.droppedInEpisode++;
+                    framesDropped.increment();
+                    return false;
+                }
+                LOGGER.info("[FanOutEngine] Client caught up: remoteAddress=" + conn.getRemoteSocketAddress() + ", dropped=" + state.droppedInEpisode);
+                state.dropping = false;
+                state.droppedInEpisode = 0;
+            }
+            if (queued < maxQueuedFrames) {
+                return true;
+            }
+            if (policy == SlowConsumerPolicy.DISCONNECT) {
+                slowDisconnects.increment();
+                LOGGER.warning("[FanOutEngine] Disconnecting slow client: remoteAddress=" + conn.getRemoteSocketAddress() + ", queuedFrames=" + queued);
+                conn.closeConnection(CloseFrame.TRY_AGAIN_LATER, "Slow consumer: " + queued + " frames queued");
+            } else {
+                LOGGER.warning("[FanOutEngine] Client queue full, dropping frames: remoteAddress=" + conn.getRemoteSocketAddress() + ", queuedFrames=" + queued);
+                state.dropping = true;
+                state.droppedInEpisode = 1;
+                framesDropped.increment();
+            }
+            return false;
+        }
+    }
+
+    public void recordFiltered(int skippedClients) {
+        if (skippedClients > 0) {
+            deliveriesFiltered.add(skippedClients);
+        }
+    }
+
+    public void setMaxQueuedFrames(int maxQueuedFrames) {
+        this.maxQueuedFrames = maxQueuedFrames;
+    }
+
+    public int getMaxQueuedFrames() {
+        return maxQueuedFrames;
+    }
+
+    public void setPolicy(SlowConsumerPolicy policy) {
+        this.policy = policy;
+    }
+
+    public SlowConsumerPolicy getPolicy() {
+        return policy;
+    }
+
+    public String summary() {
+        return "clients=" + clients.size() + ", framesEncoded=" + framesEncoded.sum() + ", framesQueued=" + framesQueued.sum()
+                + ", framesDropped=" + framesDropped.sum() + ", slowDisconnects=" + slowDisconnects.sum()
+                + ", deliveriesFiltered=" + deliveriesFiltered.sum();
+    }
+}
@@ -359,7 +359,7 @@ public class FileProcessor {
         return diff.toString();
     }
 
-    private List<DiffHunk> computeMinimalDiffHunks(String[] oldLines, String[] newLines) {
+    List<DiffHunk> computeMinimalDiffHunks(String[] oldLines, String[] newLines) {
         List<DiffHunk> hunks = new ArrayList<>();
         int i = 0;
         int j = 0;
@@ -445,7 +445,7 @@ public class FileProcessor {
         return EXTENSION_TO_LANGUAGE.getOrDefault(extension.toLowerCase(), "");
     }
 
-    private String buildAsciiTree() {
+    String buildAsciiTree() {
         if (filePaths.isEmpty()) {
             return "";
         }
@@ -486,7 +486,7 @@ public class FileProcessor {
         return tree.toString();
     }
 
-    private String findCommonPrefix(List<String> paths) {
+    String findCommonPrefix(List<String> paths) {
         if (paths.isEmpty()) {
             return "";
         }
@@ -517,7 +517,7 @@ public class FileProcessor {
         return lastSlash >= 0 ? prefix.substring(0, lastSlash) : "";
     }
 
-    private static class DiffHunk {
+    static class DiffHunk {
         int oldStart;
         int oldCount;
         int newStart;
@@ -0,0 +1,385 @@
+package com.picoedge.ai_tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Follows log files of the project (build output, logcat dumps, service logs) and feeds their lines through a
+// LineParser into the pane, in batches of at most MAX_BATCH_EVENTS. One daemon thread per project wakes on directory
+// change events and polls every POLL_MILLIS anyway, since some platforms deliver watch events late or not at all.
+// Files are read with positional reads from where the last read stopped; ranges of MAP_THRESHOLD_BYTES or more are
+// mapped in MAP_CHUNK_BYTES pieces instead, so a large file is never copied into the heap as a whole. On first open
+// only the last maxLogs lines are parsed, found by scanning the file backwards the same way, as the store could not
+// keep older ones anyway.
+// A changed file key means the file was rotated: the old channel still reads the renamed file and is drained before
+// the new file is read from its start. A file shorter than the read position was truncated and is read from its start.
+public class FileTailer {
+    private static final Logger LOGGER = Logger.getLogger(FileTailer.class.getName());
+    static final int READ_BUFFER_BYTES = 256 * 1024;
+    static final long MAP_THRESHOLD_BYTES = 8L * 1024 * 1024;
+    static final long MAP_CHUNK_BYTES = 64L * 1024 * 1024;
+    static final int MAX_LINE_BYTES = 1024 * 1024; // Longer lines are cut
+    static final int MAX_BATCH_EVENTS = 1000;
+    static final long POLL_MILLIS = 1000;
+
+    // One configured file: "path" or "path=parser", relative paths resolved against the project directory
+    public record TailSpec(Path path, String parser) {
+        static TailSpec parse(Path baseDir, String entry) {
+            int split = entry.indexOf('=');
+            String path = (split < 0 ? entry : entry.substring(0, split)).trim();
+            String parser = split < 0 ? defaultParser(path) : entry.substring(split + 1).trim();
+            LineParser.forSpec(parser); // Rejects unknown parsers and bad patterns up front
+            return new TailSpec(baseDir.resolve(path).normalize(), parser);
+        }
+
+        private static String defaultParser(String path) {
+            return path.endsWith(".jsonl") || path.endsWith(".ndjson") ? "json" : "regex";
+        }
+    }
+
+    private final String projectName;
+    private final Path baseDir;
+    private final Consumer<List<LogProcessor.ParsedEvent>> sink;
+    private final IntSupplier backlogLines;
+    private String files = "";
+    private Thread thread;
+    private volatile boolean running;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES); // Tail thread only
+    private byte[] lineBytes = new byte[8 * 1024];
+    private List<LogProcessor.ParsedEvent> batch = new ArrayList<>();
+    final LongAdder lines = new LongAdder();
+    final LongAdder events = new LongAdder();
+    final LongAdder unparsed = new LongAdder(); // Lines the parser returned no event for
+    final LongAdder skippedBytes = new LongAdder(); // Backlog older than the last maxLogs lines
+    final LongAdder rotations = new LongAdder();
+    final LongAdder truncations = new LongAdder();
+
+    public FileTailer(String projectName, Path baseDir, Consumer<List<LogProcessor.ParsedEvent>> sink, IntSupplier backlogLines) {
+        this.projectName = projectName;
+        this.baseDir = baseDir;
+        this.sink = sink;
+        this.backlogLines = backlogLines;
+    }
+
+    // "path=parser;path=parser"; restarts tailing, so every file is read again from its backlog
+    public synchronized void setFiles(String files) {
+        List<TailSpec> specs = new ArrayList<>();
+        for (String entry : files.split(";")) {
+            if (!entry.isBlank()) {
+                specs.add(TailSpec.parse(baseDir, entry));
+            }
+        }
+        stop();
+        this.files = files.trim();
+        if (specs.isEmpty()) {
+            return;
+        }
+        List<TailedFile> tailed = new ArrayList<>();
+        for (TailSpec spec : specs) {
+            tailed.add(new TailedFile(spec.path(), LineParser.forSpec(spec.parser())));
+        }
+        running = true;
+        thread = new Thread(() -> run(tailed), "AI Logger File Tail: " + projectName);
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("[FileTailer] Started: project=" + projectName + ", files=" + specs);
+    }
+
+    public synchronized String getFiles() {
+        return files;
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        LOGGER.info("[FileTailer] Stopped: project=" + projectName + ", " + summary());
+    }
+
+    public String summary() {
+        return "lines=" + lines.sum() + ", events=" + events.sum() + ", unparsed=" + unparsed.sum() + ", skippedBytes=" + skippedBytes.sum()
+                + ", rotations=" + rotations.sum() + ", truncations=" + truncations.sum();
+    }
+
+    private final class TailedFile {
+        final Path path;
+        final LineParser parser;
+        final String fileName;
+        FileChannel channel;
+        Object fileKey;
+        long position;
+        int generation; // Bumped on every reopen and truncation so line ids stay unique
+        boolean opened;
+        byte[] carry = new byte[1024]; // Bytes of a line whose newline has not been written yet
+        int carryLength;
+        long carryStart;
+        String lastError;
+
+        TailedFile(Path path, LineParser parser) {
+            this.path = path;
+            this.parser = parser;
+            this.fileName = String.valueOf(path.getFileName());
+        }
+    }
+
+    private void run(List<TailedFile> tailed) {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            Set<Path> watched = new HashSet<>();
+            while (running) {
+                for (TailedFile file : tailed) {
+                    Path dir = file.path.getParent();
+                    if (dir != null && !watched.contains(dir) && Files.isDirectory(dir)) {
+                        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                        watched.add(dir);
+                    }
+                    try {
+                        poll(file);
+                        file.lastError = null;
+                    } catch (IOException e) {
+                        if (!running) {
+                            return;
+                        }
+                        closeQuietly(file);
+                        if (!Objects.equals(e.toString(), file.lastError)) { // Once per distinct failure, not once per poll
+                            file.lastError = e.toString();
+                            LOGGER.log(Level.WARNING, "[FileTailer] Failed to read file: path=" + file.path + ", error=" + e.getMessage(), e);
+                        }
+                    }
+                }
+                WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                while (key != null) { // Any change re-polls every file; a poll is one attribute read per file
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        watched.remove((Path) key.watchable());
+                    }
+                    key = watcher.poll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running) {
+                LOGGER.log(Level.WARNING, "[FileTailer] Watch failed: project=" + projectName + ", error=" + e.getMessage(), e);
+            }
+        } finally {
+            for (TailedFile file : tailed) {
+                closeQuietly(file);
+            }
+        }
+    }
+
+    private void poll(TailedFile file) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+        // Without inode-style keys (Windows) the creation time is what tells a replacement file apart
+        Object key = attributes == null ? null : attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        if (file.channel != null && (attributes == null || !key.equals(file.fileKey))) {
+            readTo(file, file.channel.size());
+            if (file.carryLength > 0) { // The old file is finished, so its unterminated last line is complete
+                emit(file, file.carry, file.carryLength, file.carryStart);
+                file.carryLength = 0;
+                flushBatch();
+            }
+            closeQuietly(file);
+            rotations.increment();
+        }
+        if (attributes == null) {
+            return;
+        }
+        if (file.channel == null) {
+            file.channel = FileChannel.open(file.path, StandardOpenOption.READ);
+            if (!file.opened) {
+                file.position = backlogStart(file.channel);
+                skippedBytes.add(file.position);
+            } else if (!key.equals(file.fileKey)) {
+                file.position = 0; // Same file after a read failure resumes where it stopped
+            }
+            if (!key.equals(file.fileKey)) {
+                file.fileKey = key;
+                file.generation++;
+                file.carryLength = 0;
+            }
+            file.opened = true;
+        }
+        long size = file.channel.size();
+        if (size < file.position) {
+            truncations.increment();
+            file.position = 0;
+            file.carryLength = 0;
+            file.generation++;
+        }
+        if (size > file.position) {
+            readTo(file, size);
+        }
+    }
+
+    // Offset of the first of the last maxLogs lines, scanning from the end of the file: mapped chunks while
+    // MAP_THRESHOLD_BYTES or more remain before the scan position, positional reads into readBuffer below that
+    private long backlogStart(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int wanted = backlogLines.getAsInt();
+        if (wanted <= 0) {
+            return 0;
+        }
+        int newlines = 0;
+        long end = size - 1; // A final newline ends the last line rather than starting one
+        while (end > 0) {
+            ByteBuffer chunk;
+            long start;
+            if (end >= MAP_THRESHOLD_BYTES) {
+                start = Math.max(0, end - MAP_CHUNK_BYTES);
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } else {
+                start = Math.max(0, end - READ_BUFFER_BYTES);
+                readBuffer.clear().limit((int) (end - start));
+                while (readBuffer.hasRemaining()) {
+                    if (channel.read(readBuffer, start + readBuffer.position()) < 0) {
+                        return 0; // Shrunk while scanning; read it from the start
+                    }
+                }
+                chunk = readBuffer.flip();
+            }
+            for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n' && ++newlines == wanted) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private void readTo(TailedFile file, long size) throws IOException {
+        while (file.position < size && running) {
+            long remaining = size - file.position;
+            ByteBuffer chunk;
+            if (remaining >= MAP_THRESHOLD_BYTES) {
+                chunk = file.channel.map(FileChannel.MapMode.READ_ONLY, file.position, Math.min(MAP_CHUNK_BYTES, remaining));
+            } else {
+                readBuffer.clear().limit((int) Math.min(READ_BUFFER_BYTES, remaining));
+                if (file.channel.read(readBuffer, file.position) <= 0) {
+                    break;
+                }
+                chunk = readBuffer.flip();
+            }
+            scan(file, chunk, file.position);
+            file.position += chunk.limit();
+        }
+        flushBatch();
+    }
+
+    // Emits every complete line of the chunk; the bytes after its last newline wait in carry for the rest of the line
+    private void scan(TailedFile file, ByteBuffer chunk, long chunkOffset) {
+        int limit = chunk.limit();
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) != '\n') {
+                continue;
+            }
+            if (file.carryLength > 0) {
+                appendCarry(file, chunk, lineStart, i - lineStart);
+                emit(file, file.carry, file.carryLength, file.carryStart);
+                file.carryLength = 0;
+            } else {
+                int length = Math.min(i - lineStart, MAX_LINE_BYTES);
+                if (lineBytes.length < length) {
+                    lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+                }
+                chunk.get(lineStart, lineBytes, 0, length);
+                emit(file, lineBytes, length, chunkOffset + lineStart);
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < limit) {
+            if (file.carryLength == 0) {
+                file.carryStart = chunkOffset + lineStart;
+            }
+            appendCarry(file, chunk, lineStart, limit - lineStart);
+        }
+    }
+
+    private static void appendCarry(TailedFile file, ByteBuffer chunk, int from, int length) {
+        int kept = Math.min(length, MAX_LINE_BYTES - file.carryLength);
+        if (kept <= 0) {
+            return;
+        }
+        if (file.carry.length < file.carryLength + kept) {
+            file.carry = Arrays.copyOf(file.carry, Math.max(file.carryLength + kept, file.carry.length * 2));
+        }
+        chunk.get(from, file.carry, file.carryLength, kept);
+        file.carryLength += kept;
+    }
+
+    private void emit(TailedFile file, byte[] bytes, int length, long offset) {
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        lines.increment();
+        String id = file.path + ":" + file.generation + ":" + offset; // Where the line starts, stable across polls
+        LogProcessor.ParsedEvent event = file.parser.parse(new String(bytes, 0, length, StandardCharsets.UTF_8), id, file.fileName);
+        if (event == null) {
+            unparsed.increment();
+            return;
+        }
+        batch.add(event);
+        if (batch.size() >= MAX_BATCH_EVENTS) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<LogProcessor.ParsedEvent> full = batch;
+        batch = new ArrayList<>();
+        events.add(full.size());
+        sink.accept(full);
+    }
+
+    private static void closeQuietly(TailedFile file) {
+        if (file.channel == null) {
+            return;
+        }
+        try {
+            file.channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from it
+        }
+        file.channel = null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.picoedge.ai_tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Plain-HTTP side door of the local hub for producers that cannot hold a WebSocket open (shell scripts, builds,
+// test runners): POST /ingest with an NDJSON body, plus GET /health. It listens on the hub port + 1 because the
+// WebSocket server answers every non-upgrade request on its own port with a 404 before any hook runs.
+// The body is read in chunks of about CHUNK_CHARS cut at the last complete line, and each chunk goes through the
+// hub as one batch frame, so a request of any size is held in memory one chunk at a time. Handling a chunk before
+// reading the next one lets TCP flow control slow a producer that outpaces the hub.
+public class HttpIngestServer {
+    private static final Logger LOGGER = Logger.getLogger(HttpIngestServer.class.getName());
+    static final int CHUNK_CHARS = 256 * 1024;
+    static final int HANDLER_THREADS = 2;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ToIntFunction<String> ingest; // Ingests one NDJSON chunk, returning the number of new events
+    private final IntSupplier connectedClients;
+
+    public HttpIngestServer(int port, ToIntFunction<String> ingest, IntSupplier connectedClients) throws IOException {
+        this.ingest = ingest;
+        this.connectedClients = connectedClients;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "AI Logger HTTP Ingest " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/ingest", this::handleIngest);
+        server.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("[HttpIngestServer] Started: port=" + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOGGER.info("[HttpIngestServer] Stopped: port=" + server.getAddress().getPort());
+    }
+
+    // Responds {"accepted":N,"dropped":M}: accepted lines became new events, dropped ones were malformed, had no id
+    // or repeated an id the hub had already seen
+    private void handleIngest(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "{\"error\":\"POST an NDJSON body\"}");
+                return;
+            }
+            long started = System.nanoTime();
+            long accepted = 0;
+            long lines = 0;
+            char[] buffer = new char[CHUNK_CHARS];
+            int filled = 0;
+            try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                while (true) {
+                    int read = reader.read(buffer, filled, buffer.length - filled);
+                    if (read < 0) {
+                        break;
+                    }
+                    filled += read;
+                    if (filled < buffer.length) {
+                        continue;
+                    }
+                    int cut = lastNewline(buffer, filled);
+                    if (cut < 0) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2); // A line longer than the chunk
+                        continue;
+                    }
+                    lines += countLines(buffer, cut + 1);
+                    accepted += ingest.applyAsInt(new String(buffer, 0, cut + 1));
+                    filled -= cut + 1;
+                    System.arraycopy(buffer, cut + 1, buffer, 0, filled);
+                }
+            }
+            if (filled > 0) {
+                lines += countLines(buffer, filled);
+                accepted += ingest.applyAsInt(new String(buffer, 0, filled));
+            }
+            long dropped = lines - accepted;
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[HttpIngestServer] Ingested request: remoteAddress=" + exchange.getRemoteAddress() + ", accepted=" + accepted
+                        + ", dropped=" + dropped + ", micros=" + (System.nanoTime() - started) / 1000);
+            }
+            respond(exchange, 200, "{\"accepted\":" + accepted + ",\"dropped\":" + dropped + "}");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[HttpIngestServer] Ingest request failed: remoteAddress=" + exchange.getRemoteAddress() + ", error=" + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 200, "{\"status\":\"ok\",\"clients\":" + connectedClients.getAsInt() + "}");
+        }
+    }
+
+    private static int lastNewline(char[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Lines holding anything but whitespace, i.e. the events the chunk claims to carry
+    private static int countLines(char[] buffer, int length) {
+        int lines = 0;
+        boolean content = false;
+        for (int i = 0; i < length; i++) {
+            char c = buffer[i];
+            if (c == '\n') {
+                if (content) {
+                    lines++;
+                }
+                content = false;
+            } else if (!content && !Character.isWhitespace(c)) {
+                content = true;
+            }
+        }
+        return content ? lines + 1 : lines;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
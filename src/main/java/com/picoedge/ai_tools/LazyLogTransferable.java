@@ -0,0 +1,164 @@
+package com.picoedge.ai_tools;
+
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.ClipboardOwner;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Logger;
+
+// Clipboard contents of a log copy: a snapshot of the events, formatted as Markdown only when first needed. The
+// background task started by the copy usually does the work. No lock is held while formatting: a paste that comes
+// first waits up to PASTE_WAIT_MILLIS for a running task and then formats on its own thread, and whichever finishes
+// first publishes the text and stops the other. At most maxBytes of UTF-8 are formatted, keeping the newest or the
+// oldest events and saying how many were left out. Copying is therefore instant at any selection size.
+public class LazyLogTransferable implements Transferable, ClipboardOwner {
+    private static final Logger LOGGER = Logger.getLogger(LazyLogTransferable.class.getName());
+    private static final DataFlavor[] FLAVORS = {DataFlavor.stringFlavor};
+    private static final long PASTE_WAIT_MILLIS = 2000;
+
+    // Which end of the selection survives when it is larger than the cap
+    public enum Keep {
+        NEWEST, OLDEST
+    }
+
+    private volatile List<LogProcessor.LogEvent> logs; // Released once formatted
+    private final long maxBytes;
+    private final Keep keep;
+    private final CompletableFuture<String> text = new CompletableFuture<>();
+    private final AtomicInteger preparing = new AtomicInteger(); // Formats in progress
+    private volatile boolean released; // Another copy replaced this one, so nobody will paste it
+
+    public LazyLogTransferable(List<LogProcessor.LogEvent> logs, long maxBytes, Keep keep) {
+        this.logs = logs;
+        this.maxBytes = maxBytes;
+        this.keep = keep;
+    }
+
+    // The formatted text, or null when cancelled or released before it was done; a later paste formats again
+    public String prepare(BooleanSupplier cancelled, DoubleConsumer progress) {
+        List<LogProcessor.LogEvent> snapshot = logs;
+        if (text.isDone() || snapshot == null) {
+            return text.getNow(null);
+        }
+        preparing.incrementAndGet();
+        try {
+            long started = System.nanoTime();
+            String formatted = format(snapshot, maxBytes, keep, () -> released || text.isDone() || cancelled.getAsBoolean(), progress);
+            if (formatted != null && text.complete(formatted)) {
+                LOGGER.info("[LazyLogTransferable] Formatted copied logs: events=" + snapshot.size() + ", length=" + formatted.length()
+                        + ", millis=" + (System.nanoTime() - started) / 1_000_000);
+                logs = null;
+            }
+        } finally {
+            preparing.decrementAndGet();
+        }
+        return text.getNow(null);
+    }
+
+    @Override
+    public DataFlavor[] getTransferDataFlavors() {
+        return FLAVORS.clone();
+    }
+
+    @Override
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+        return DataFlavor.stringFlavor.equals(flavor);
+    }
+
+    @Override
+    public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+        if (!isDataFlavorSupported(flavor)) {
+            throw new UnsupportedFlavorException(flavor);
+        }
+        if (preparing.get() > 0 && !released) {
+            try {
+                return text.get(PASTE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                LOGGER.fine("[LazyLogTransferable] Copy still formatting, pasting formats itself: waitMillis=" + PASTE_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "";
+            } catch (ExecutionException e) {
+                // Never completed exceptionally
+            }
+        }
+        String formatted = prepare(() -> false, progress -> { });
+        return formatted != null ? formatted : "";
+    }
+
+    @Override
+    public void lostOwnership(Clipboard clipboard, Transferable contents) {
+        released = true;
+    }
+
+    // Markdown of the events that fit in maxBytes, in store order, or null when cancelled. Cancellation and progress
+    // are checked every 256 events.
+    static String format(List<LogProcessor.LogEvent> logs, long maxBytes, Keep keep, BooleanSupplier cancelled, DoubleConsumer progress) {
+        int total = logs.size();
+        StringBuilder event = new StringBuilder();
+        List<String> kept = new ArrayList<>();
+        long bytes = 0;
+        int count = 0;
+        for (; count < total; count++) {
+            if ((count & 0xFF) == 0) {
+                if (cancelled.getAsBoolean()) {
+                    return null;
+                }
+                progress.accept(Math.max((double) count / total, (double) bytes / maxBytes));
+            }
+            event.setLength(0);
+            LogDisplay.appendMarkdown(event, logs.get(keep == Keep.NEWEST ? total - 1 - count : count));
+            long eventBytes = utf8Length(event);
+            if (bytes + eventBytes > maxBytes) {
+                break;
+            }
+            bytes += eventBytes;
+            kept.add(event.toString());
+        }
+        int omitted = total - count;
+        StringBuilder text = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 64, bytes + 128));
+        if (omitted > 0 && keep == Keep.NEWEST) {
+            text.append(omittedNote(omitted, "earlier", maxBytes));
+        }
+        for (int i = 0; i < kept.size(); i++) {
+            text.append(kept.get(keep == Keep.NEWEST ? kept.size() - 1 - i : i));
+        }
+        if (omitted > 0 && keep == Keep.OLDEST) {
+            text.append(omittedNote(omitted, "later", maxBytes));
+        }
+        progress.accept(1.0);
+        return text.toString();
+    }
+
+    private static String omittedNote(int omitted, String which, long maxBytes) {
+        return String.format("_%d %s events not copied (clipboard limit %.1f MB)_\n\n", omitted, which, maxBytes / 1e6);
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,167 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Maps one line of a tailed log file to an event, or returns null for lines that are not events of their own
+// (logcat section markers, lines a regex does not match, malformed JSON). id is unique per line and file generation;
+// JSON lines keep their own id when they carry one. Called on the tail thread only.
+public interface LineParser {
+    LogProcessor.ParsedEvent parse(String line, String id, String fileName);
+
+    // "json", "logcat" or "regex:<pattern with named groups>"; "regex" alone uses DEFAULT_PATTERN
+    static LineParser forSpec(String spec) {
+        if (spec.equals("json")) {
+            return new JsonLines();
+        } else if (spec.equals("logcat")) {
+            return new Logcat();
+        } else if (spec.equals("regex")) {
+            return new Regex(Regex.DEFAULT_PATTERN);
+        } else if (spec.startsWith("regex:")) {
+            return new Regex(spec.substring("regex:".length()));
+        }
+        throw new IllegalArgumentException("Unknown line parser: " + spec + " (expected json, logcat or regex:<pattern>)");
+    }
+
+    static LogProcessor.ParsedEvent event(String line, String id, int level, String category, String description,
+                                          long timestamp, boolean producerTimestamp, String source) {
+        return new LogProcessor.ParsedEvent(line, id, level, category, description, timestamp, producerTimestamp, source,
+                null, null, null, null, null, null, null, 0, 0);
+    }
+
+    // Level names (any case, any prefix of at least one letter such as "W" or "WARN") or numeric level values
+    static int level(String text) {
+        if (text == null || text.isEmpty()) {
+            return LogProcessor.LogLevel.Info.getValue();
+        }
+        char first = Character.toUpperCase(text.charAt(0));
+        if (Character.isDigit(first)) {
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                return LogProcessor.LogLevel.Info.getValue();
+            }
+        }
+        switch (first) {
+            case 'V': // Logcat verbose
+            case 'T': return LogProcessor.LogLevel.Trace.getValue();
+            case 'D': return LogProcessor.LogLevel.Debug.getValue();
+            case 'N': return LogProcessor.LogLevel.Notice.getValue();
+            case 'W': return LogProcessor.LogLevel.Warning.getValue();
+            case 'E': return LogProcessor.LogLevel.Error.getValue();
+            case 'C': return LogProcessor.LogLevel.Critical.getValue();
+            case 'F':
+            case 'A': return LogProcessor.LogLevel.Fatal.getValue(); // Logcat assert
+            default: return LogProcessor.LogLevel.Info.getValue();
+        }
+    }
+
+    // One event object per line, the same shape the WebSocket producers send
+    final class JsonLines implements LineParser {
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @Override
+        public LogProcessor.ParsedEvent parse(String line, String id, String fileName) {
+            if (line.isBlank()) {
+                return null;
+            }
+            try {
+                return LogProcessor.parse(objectMapper, line, false, id);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    // adb logcat -v threadtime: "MM-DD HH:MM:SS.mmm  PID  TID L TAG: message"; the tag becomes the category
+    final class Logcat implements LineParser {
+        private static final Pattern THREADTIME = Pattern.compile(
+                "^(\\d\\d)-(\\d\\d)\\s+(\\d\\d):(\\d\\d):(\\d\\d)\\.(\\d{3})\\s+(\\d+)\\s+(\\d+)\\s+([VDIWEFA])\\s+(.*?)\\s*: (.*)$");
+        private final int year = Year.now().getValue(); // Threadtime lines carry no year
+        private final ZoneId zone = ZoneId.systemDefault();
+
+        @Override
+        public LogProcessor.ParsedEvent parse(String line, String id, String fileName) {
+            Matcher matcher = THREADTIME.matcher(line);
+            if (!matcher.matches()) {
+                return null;
+            }
+            long timestamp;
+            try {
+                timestamp = LocalDateTime.of(year, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                        Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)), Integer.parseInt(matcher.group(5)),
+                        Integer.parseInt(matcher.group(6)) * 1_000_000).atZone(zone).toInstant().toEpochMilli();
+            } catch (RuntimeException e) {
+                return null; // Out-of-range month or day
+            }
+            String tag = matcher.group(10).isEmpty() ? "logcat" : matcher.group(10);
+            return event(line, id, level(matcher.group(9)), tag, matcher.group(11), timestamp, true, fileName);
+        }
+    }
+
+    // Named groups level, category, timestamp, source and description (or message) fill the event; all are optional.
+    // Timestamps may be epoch seconds or millis, or ISO-8601 with a space or T and a . or , before the fraction.
+    final class Regex implements LineParser {
+        static final String DEFAULT_PATTERN = "^(?<timestamp>\\d{4}-\\d\\d-\\d\\d[T ]\\d\\d:\\d\\d:\\d\\d(?:[.,]\\d+)?(?:Z|[+-]\\d\\d:?\\d\\d)?)?\\s*"
+                + "\\[?(?<level>TRACE|DEBUG|INFO|NOTICE|WARN|WARNING|ERROR|CRITICAL|FATAL)?\\]?\\s*(?<description>.*)$";
+        private final Pattern pattern;
+        private final boolean hasLevel;
+        private final boolean hasCategory;
+        private final boolean hasTimestamp;
+        private final boolean hasSource;
+        private final String descriptionGroup;
+        private final ZoneId zone = ZoneId.systemDefault();
+
+        Regex(String regex) {
+            this.pattern = Pattern.compile(regex);
+            this.hasLevel = regex.contains("(?<level>");
+            this.hasCategory = regex.contains("(?<category>");
+            this.hasTimestamp = regex.contains("(?<timestamp>");
+            this.hasSource = regex.contains("(?<source>");
+            this.descriptionGroup = regex.contains("(?<description>") ? "description" : regex.contains("(?<message>") ? "message" : null;
+        }
+
+        @Override
+        public LogProcessor.ParsedEvent parse(String line, String id, String fileName) {
+            if (line.isBlank()) {
+                return null;
+            }
+            Matcher matcher = pattern.matcher(line);
+            if (!matcher.find()) {
+                return null;
+            }
+            String category = hasCategory ? matcher.group("category") : null;
+            String source = hasSource ? matcher.group("source") : null;
+            String description = descriptionGroup != null ? matcher.group(descriptionGroup) : line;
+            long timestamp = hasTimestamp ? parseTimestamp(matcher.group("timestamp")) : -1;
+            return event(line, id, level(hasLevel ? matcher.group("level") : null), category != null ? category : "file",
+                    description != null ? description : line, timestamp >= 0 ? timestamp : System.currentTimeMillis(), timestamp >= 0,
+                    source != null ? source : fileName);
+        }
+
+        private long parseTimestamp(String text) {
+            if (text == null || text.isEmpty()) {
+                return -1;
+            }
+            try {
+                if (text.chars().allMatch(Character::isDigit)) {
+                    long value = Long.parseLong(text);
+                    return text.length() <= 10 ? value * 1000 : value;
+                }
+                String iso = text.replace(' ', 'T').replace(',', '.');
+                if (iso.endsWith("Z") || iso.matches(".*[+-]\\d\\d:?\\d\\d$")) {
+                    return OffsetDateTime.parse(iso.replaceFirst("([+-]\\d\\d)(\\d\\d)$", "$1:$2")).toInstant().toEpochMilli();
+                }
+                return LocalDateTime.parse(iso).atZone(zone).toInstant().toEpochMilli();
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Streams the log buffer to and from files. NDJSON exports are gzip-compressed event objects in the producers' own
+// format, so an import is read back through the batch path like any other batch frame. Markdown exports hold the
+// text copyLogs would put on the clipboard, for reading only.
+// Export writes one event at a time and import reads one chunk of about IMPORT_CHUNK_CHARS at a time, cut at the
+// last complete line, so neither direction holds a whole file or its text in memory. Both check for cancellation
+// and report progress between events or chunks; a cancelled export deletes its partial file.
+public final class LogArchive {
+    public static final String NDJSON_EXTENSION = "ndjson.gz";
+    public static final String MARKDOWN_EXTENSION = "md";
+    static final int BUFFER_BYTES = 64 * 1024;
+    static final int IMPORT_CHUNK_CHARS = 256 * 1024;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public enum Format {
+        NDJSON, MARKDOWN;
+
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().endsWith("." + MARKDOWN_EXTENSION) ? MARKDOWN : NDJSON;
+        }
+    }
+
+    // events are those written, or for an import those that were new to the store
+    public record Result(long events, long bytes, boolean cancelled) {
+    }
+
+    private LogArchive() {
+    }
+
+    public static Result export(List<LogProcessor.LogEvent> logs, Path file, Format format, BooleanSupplier cancelled,
+                                DoubleConsumer progress) throws IOException {
+        long written = 0;
+        boolean stopped = false;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (format == Format.MARKDOWN) {
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES)) {
+                    StringBuilder text = new StringBuilder();
+                    for (LogProcessor.LogEvent event : logs) {
+                        if ((stopped = cancelled(written, cancelled, progress, logs.size()))) {
+                            break;
+                        }
+                        text.setLength(0);
+                        LogDisplay.appendMarkdown(text, event);
+                        writer.append(text);
+                        written++;
+                    }
+                }
+            } else {
+                try (JsonGenerator json = MAPPER.getFactory().createGenerator(new GZIPOutputStream(out, BUFFER_BYTES))) {
+                    json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+                    for (LogProcessor.LogEvent event : logs) {
+                        if ((stopped = cancelled(written, cancelled, progress, logs.size()))) {
+                            break;
+                        }
+                        writeEvent(json, event);
+                        written++;
+                    }
+                    json.writeRaw('\n');
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        if (stopped) {
+            Files.deleteIfExists(file);
+            return new Result(written, 0, true);
+        }
+        progress.accept(1.0);
+        return new Result(written, Files.size(file), false);
+    }
+
+    // Checked every 256 events so a large export pays almost nothing for progress and cancellation
+    private static boolean cancelled(long written, BooleanSupplier cancelled, DoubleConsumer progress, int total) {
+        if ((written & 0xFF) != 0) {
+            return false;
+        }
+        progress.accept((double) written / Math.max(1, total));
+        return cancelled.getAsBoolean();
+    }
+
+    // The fields fromJson reads, so an import restores what the export saw; expand state stays with the pane
+    private static void writeEvent(JsonGenerator json, LogProcessor.LogEvent event) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", event.id);
+        json.writeNumberField("level", event.level);
+        json.writeStringField("category", event.category);
+        json.writeStringField("description", event.description);
+        json.writeNumberField("timestamp", event.timestamp);
+        json.writeStringField("source", event.source);
+        if (event.correlationId != null) {
+            json.writeStringField("correlationId", event.correlationId);
+        }
+        if (event.title != null) {
+            json.writeStringField("title", event.title);
+        }
+        if (event.code != null) {
+            json.writeNumberField("code", event.code);
+        }
+        if (event.deviceId != null) {
+            json.writeStringField("deviceId", event.deviceId);
+        }
+        if (event.includeStacktrace != null) {
+            json.writeBooleanField("includeStacktrace", event.includeStacktrace);
+        }
+        if (event.stacktrace != null) {
+            json.writeObjectField("stacktrace", event.stacktrace);
+        }
+        if (event.data != null) {
+            json.writeObjectField("data", event.data);
+        }
+        json.writeEndObject();
+    }
+
+    // Reads gzip or plain NDJSON; ingest stores one chunk of lines and returns how many of its events were new
+    public static Result importFile(Path file, ToIntFunction<String> ingest, BooleanSupplier cancelled, DoubleConsumer progress) throws IOException {
+        long size = Math.max(1, Files.size(file));
+        long accepted = 0;
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             Reader reader = new InputStreamReader(decompressed(new BufferedInputStream(counted, BUFFER_BYTES)), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[IMPORT_CHUNK_CHARS];
+            int filled = 0;
+            boolean checked = false;
+            while (true) {
+                if (cancelled.getAsBoolean()) {
+                    return new Result(accepted, counted.count, true);
+                }
+                int read = reader.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+                if (!checked) {
+                    checked = requireNdjson(buffer, filled);
+                }
+                if (filled < buffer.length) {
+                    continue;
+                }
+                int cut = lastNewline(buffer, filled);
+                if (cut < 0) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2); // A line longer than the chunk
+                    continue;
+                }
+                accepted += ingest.applyAsInt(new String(buffer, 0, cut + 1));
+                filled -= cut + 1;
+                System.arraycopy(buffer, cut + 1, buffer, 0, filled);
+                progress.accept((double) counted.count / size);
+            }
+            if (filled > 0) {
+                accepted += ingest.applyAsInt(new String(buffer, 0, filled));
+            }
+            progress.accept(1.0);
+            return new Result(accepted, counted.count, false);
+        }
+    }
+
+    // Gzip streams start with 1f 8b; anything else is read as plain text
+    private static InputStream decompressed(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == 0x1f && second == 0x8b ? new GZIPInputStream(in, BUFFER_BYTES) : in;
+    }
+
+    // Fails fast on Markdown exports and other text instead of counting every line as malformed; false until the
+    // first non-blank character has been read
+    private static boolean requireNdjson(char[] buffer, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(buffer[i])) {
+                if (buffer[i] != '{') {
+                    throw new IOException("Not an NDJSON log export");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int lastNewline(char[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Compressed bytes read so far, which is what progress is measured against
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -1,109 +1,197 @@
 package com.picoedge.ai_tools;
 
 import com.picoedge.ai_tools.utils.LogPaneUtils;
-import java.awt.datatransfer.StringSelection;
 import java.awt.Toolkit;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 public class LogDisplay {
+    private static final Logger LOGGER = Logger.getLogger(LogDisplay.class.getName());
+    private static final String HTML_HEAD = "<html><body style='font-family:monospace;font-size:12px;background-color:#1e1e1e;color:#ffffff;padding:10px;'>";
+    private static final String HTML_TAIL = "</body></html>";
+    // DateTimeFormatter is immutable and thread-safe, unlike the per-event SimpleDateFormat it replaces
+    static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    static final long DEFAULT_COPY_MAX_BYTES = 8L * 1024 * 1024;
+    private volatile long copyMaxBytes = DEFAULT_COPY_MAX_BYTES;
+    private volatile LazyLogTransferable.Keep copyKeep = LazyLogTransferable.Keep.NEWEST;
+
     public String generateLogHtml(List<LogProcessor.LogEvent> logs) {
-        StringBuilder html = new StringBuilder("<html><body style='font-family:monospace;font-size:12px;background-color:#1e1e1e;color:#ffffff;padding:10px;'>");
+        StringBuilder html = new StringBuilder(HTML_HEAD);
+        appendEventsHtml(html, logs);
+        html.append(HTML_TAIL);
+        return html.toString();
+    }
+
+    // Emits only the per-event blocks so they can be inserted into an existing HTMLDocument body
+    public String generateLogFragments(List<LogProcessor.LogEvent> logs) {
+        StringBuilder html = new StringBuilder();
+        appendEventsHtml(html, logs);
+        return html.toString();
+    }
 
+    // Element id of an event's block, used by LogPaneUI to trim and replace rendered events
+    public static String elementId(LogProcessor.LogEvent event) {
+        return "ev-" + event.storeIndex;
+    }
+
+    private void appendEventsHtml(StringBuilder html, List<LogProcessor.LogEvent> logs) {
         for (LogProcessor.LogEvent event : logs) {
-            String escapedSource = event.source != null ? event.source.replace("<", "&lt;").replace(">", "&gt;") : "";
-            String escapedDeviceId = event.deviceId != null ? event.deviceId.replace("<", "&lt;").replace(">", "&gt;") : "";
-            String escapedCorrelationId = event.correlationId != null ? event.correlationId.replace("<", "&lt;").replace(">", "&gt;") : "";
-            String escapedCategory = event.category.replace("<", "&lt;").replace(">", "&gt;");
-            String escapedTitle = event.title != null ? event.title.replace("<", "&lt;").replace(">", "&gt;") : "";
-            String escapedDescription = event.description.replace("<", "&lt;").replace(">", "&gt;");
-            String escapedCode = event.code != null ? event.code.toString() : "N/A";
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(event.timestamp));
-            String levelStr = LogProcessor.LogLevel.toString(event.level);
-            String color;
-            switch (event.level) {
-                case 1: color = "#999999"; break;
-                case 2: color = "#00FF00"; break;
-                case 4: color = "#1E90FF"; break;
-                case 8: color = "#FFD700"; break;
-                case 16: color = "#FFA500"; break;
-                case 32: color = "#FF0000"; break;
-                case 64: color = "#FF00FF"; break;
-                case 128: color = "#DC143C"; break;
-                default: color = "#FFFFFF"; break;
-            }
-            String categoryColor = LogPaneUtils.getFieldColor(event.category);
-            String sourceColor = LogPaneUtils.getFieldColor(event.source);
-            String deviceIdColor = LogPaneUtils.getFieldColor(event.deviceId);
-            String correlationIdColor = LogPaneUtils.getFieldColor(event.correlationId);
-            html.append("<div style='margin-bottom:10px;padding:10px;background-color:#2a2a2a;border-radius:4px;'>");
-            html.append(String.format("<span style='color:%s'>%s [<a href='category:%s' title='Category' style='color:%s !important;text-decoration:underline'>%s</a>] [<a href='source:%s' title='Source' style='color:%s !important;text-decoration:underline'>%s</a>] [<a href='deviceId:%s' title='Device' style='color:%s !important;text-decoration:underline'>%s</a>] [<a href='correlationId:%s' title='Correlation' style='color:%s !important;text-decoration:underline'>%s</a>] [<a href='level:%s' title='Log Level' style='color:%s !important;text-decoration:underline'>%s</a>] %s: %s</span><br>",
-                    color, timestamp, escapedCategory, categoryColor, escapedCategory,
-                    escapedSource, sourceColor, escapedSource,
-                    escapedDeviceId, deviceIdColor, escapedDeviceId,
-                    escapedCorrelationId, correlationIdColor, escapedCorrelationId,
-                    levelStr, color, levelStr, escapedCode, escapedTitle));
-            html.append(escapedDescription).append("<br>");
-            if (event.stacktrace != null && !event.stacktrace.isEmpty()) {
-                html.append(String.format("<div style='margin-top:5px;'><a href='stack:%s' style='color:#1e90ff;font-family:monospace;font-size:12px;text-decoration:underline;user-select:none;'>%s</a></div>",
-                        event.id.replace("<", "&lt;").replace(">", "&gt;"), event.stacktraceExpanded ? "Hide Stack" : "Show Stack"));
-            }
-            if (event.data != null) {
-                html.append(String.format("<div style='margin-top:5px;'><a href='data:%s' style='color:#1e90ff;font-family:monospace;font-size:12px;text-decoration:underline;user-select:none;'>%s</a></div>",
-                        event.id.replace("<", "&lt;").replace(">", "&gt;"), event.dataExpanded ? "Hide Data" : "Show Data"));
-            }
-            if (event.stacktraceExpanded && event.stacktrace != null && !event.stacktrace.isEmpty()) {
-                html.append("<div style='margin-top:5px;padding-left:10px;border-left:2px solid #555;color:#cccccc;font-family:monospace;font-size:10px;'>");
-                html.append("Stack Trace:<br>");
-                for (Map<String, Object> frame : event.stacktrace) {
-                    Object lineObj = frame.get("line");
-                    String line = lineObj instanceof String ? (String) lineObj : (lineObj != null ? lineObj.toString() : "");
-                    html.append(line.replace("<", "&lt;").replace(">", "&gt;")).append("<br>");
-                }
-                html.append("</div>");
-            }
-            if (event.dataExpanded && event.data != null) {
-                html.append("<div style='margin-top:5px;padding-left:10px;border-left:2px solid #555;color:#cccccc;font-family:monospace;font-size:10px;'>");
-                html.append("Data:<br>");
-                html.append(LogPaneUtils.formatData(event.data).replace("\n", "<br>"));
-                html.append("</div>");
+            html.append(renderEvent(event));
+        }
+    }
+
+    // Fragments are cached on the event keyed on expand state, so a full redraw is mostly concatenation. The palette is
+    // fixed in this class, not taken from the Look-and-Feel, so a theme change does not invalidate them.
+    private String renderEvent(LogProcessor.LogEvent event) {
+        int key = (event.stacktraceExpanded ? 1 : 0) | (event.dataExpanded ? 2 : 0);
+        if (event.renderedHtml != null && event.renderedKey == key) {
+            return event.renderedHtml;
+        }
+        if (event.renderedHeader == null) {
+            event.renderedHeader = renderHeader(event);
+        }
+        StringBuilder html = new StringBuilder(event.renderedHeader.length() + 256);
+        html.append(event.renderedHeader);
+        if (event.stacktrace != null && !event.stacktrace.isEmpty()) {
+            html.append("<div style='margin-top:5px;'><a href='stack:").append(LogPaneUtils.escapeHtml(event.id))
+                    .append("' style='color:#1e90ff;font-family:monospace;font-size:12px;text-decoration:underline;user-select:none;'>")
+                    .append(event.stacktraceExpanded ? "Hide Stack" : "Show Stack").append("</a></div>");
+        }
+        if (event.data != null) {
+            html.append("<div style='margin-top:5px;'><a href='data:").append(LogPaneUtils.escapeHtml(event.id))
+                    .append("' style='color:#1e90ff;font-family:monospace;font-size:12px;text-decoration:underline;user-select:none;'>")
+                    .append(event.dataExpanded ? "Hide Data" : "Show Data").append("</a></div>");
+        }
+        if (event.stacktraceExpanded && event.stacktrace != null && !event.stacktrace.isEmpty()) {
+            html.append("<div style='margin-top:5px;padding-left:10px;border-left:2px solid #555;color:#cccccc;font-family:monospace;font-size:10px;'>");
+            html.append("Stack Trace:<br>");
+            for (Map<String, Object> frame : event.stacktrace) {
+                Object lineObj = frame.get("line");
+                String line = lineObj instanceof String ? (String) lineObj : (lineObj != null ? lineObj.toString() : "");
+                html.append(LogPaneUtils.escapeHtml(line)).append("<br>");
             }
             html.append("</div>");
         }
-        html.append("</body></html>");
+        if (event.dataExpanded && event.data != null) {
+            html.append("<div style='margin-top:5px;padding-left:10px;border-left:2px solid #555;color:#cccccc;font-family:monospace;font-size:10px;'>");
+            html.append("Data:<br>");
+            html.append(LogPaneUtils.formatData(event.data).replace("\n", "<br>"));
+            html.append("</div>");
+        }
+        html.append("</div>");
+        event.renderedHtml = html.toString();
+        event.renderedKey = key;
+        return event.renderedHtml;
+    }
+
+    // Opening block, header line and description; independent of expand state so it is escaped and colored once
+    private String renderHeader(LogProcessor.LogEvent event) {
+        String escapedSource = LogPaneUtils.escapeHtml(event.source);
+        String escapedDeviceId = LogPaneUtils.escapeHtml(event.deviceId);
+        String escapedCorrelationId = LogPaneUtils.escapeHtml(event.correlationId);
+        String escapedCategory = LogPaneUtils.escapeHtml(event.category);
+        String escapedTitle = LogPaneUtils.escapeHtml(event.title);
+        String escapedCode = event.code != null ? event.code.toString() : "N/A";
+        String levelStr = LogProcessor.LogLevel.toString(event.level);
+        String color = levelColor(event.level);
+        StringBuilder html = new StringBuilder(768 + event.description.length());
+        html.append("<div id='").append(elementId(event)).append("' style='margin-bottom:10px;padding:10px;background-color:#2a2a2a;border-radius:4px;'>");
+        html.append("<span style='color:").append(color).append("'>").append(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(event.timestamp)));
+        appendLink(html, "category", escapedCategory, "Category", LogPaneUtils.getFieldColor(event.category));
+        appendLink(html, "source", escapedSource, "Source", LogPaneUtils.getFieldColor(event.source));
+        appendLink(html, "deviceId", escapedDeviceId, "Device", LogPaneUtils.getFieldColor(event.deviceId));
+        appendLink(html, "correlationId", escapedCorrelationId, "Correlation", LogPaneUtils.getFieldColor(event.correlationId));
+        if (event.correlationId != null && !event.correlationId.isEmpty()) {
+            html.append(" <a href='trace:").append(escapedCorrelationId).append("' title='Trace Waterfall' style='color:")
+                    .append(LogPaneUtils.getFieldColor(event.correlationId)).append(" !important'>⧖</a>");
+        }
+        appendLink(html, "level", levelStr, "Log Level", color);
+        html.append(' ').append(escapedCode).append(": ").append(escapedTitle).append("</span><br>");
+        html.append(LogPaneUtils.escapeHtml(event.description)).append("<br>");
         return html.toString();
     }
 
-    public void copyLogs(List<LogProcessor.LogEvent> logs) {
+    private static void appendLink(StringBuilder html, String scheme, String value, String tooltip, String color) {
+        html.append(" [<a href='").append(scheme).append(':').append(value).append("' title='").append(tooltip)
+                .append("' style='color:").append(color).append(" !important;text-decoration:underline'>").append(value).append("</a>]");
+    }
+
+    static String levelColor(int level) {
+        switch (level) {
+            case 1: return "#999999";
+            case 2: return "#00FF00";
+            case 4: return "#1E90FF";
+            case 8: return "#FFD700";
+            case 16: return "#FFA500";
+            case 32: return "#FF0000";
+            case 64: return "#FF00FF";
+            case 128: return "#DC143C";
+            default: return "#FFFFFF";
+        }
+    }
+
+    // Puts the events on the clipboard without formatting them; the caller may prepare() the returned contents in the
+    // background so a paste finds the text ready. Any thread; the AWT clipboard synchronizes setContents itself
+    public LazyLogTransferable copyLogs(List<LogProcessor.LogEvent> logs) {
+        LazyLogTransferable contents = new LazyLogTransferable(logs, copyMaxBytes, copyKeep);
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(contents, contents);
+        LOGGER.info("[LogDisplay] Copied logs to clipboard: events=" + logs.size() + ", maxBytes=" + copyMaxBytes + ", keep=" + copyKeep);
+        return contents;
+    }
+
+    public long getCopyMaxBytes() {
+        return copyMaxBytes;
+    }
+
+    public void setCopyMaxBytes(long copyMaxBytes) {
+        this.copyMaxBytes = copyMaxBytes;
+    }
+
+    public LazyLogTransferable.Keep getCopyKeep() {
+        return copyKeep;
+    }
+
+    public void setCopyKeep(LazyLogTransferable.Keep copyKeep) {
+        this.copyKeep = copyKeep;
+    }
+
+    // Markdown text placed on the clipboard by copyLogs; kept separate so it can run without a display
+    public String formatLogs(List<LogProcessor.LogEvent> logs) {
         StringBuilder logText = new StringBuilder();
         for (LogProcessor.LogEvent event : logs) {
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(event.timestamp));
-            String source = event.source != null ? event.source : "";
-            String deviceId = event.deviceId != null ? event.deviceId : "";
-            String correlationId = event.correlationId != null ? event.correlationId : "";
-            String categoryStr = event.category != null ? event.category : "";
-            String levelStr = LogProcessor.LogLevel.toString(event.level);
-            String codeStr = event.code != null ? event.code.toString() : "N/A";
-            String title = event.title != null ? event.title : "";
-            String description = event.description != null ? event.description : "";
-            logText.append(String.format("### %s [%s] [%s] [%s] [%s] [%s] %s: %s\n%s",
-                    timestamp, categoryStr, source, deviceId, correlationId, levelStr, codeStr, title, description));
-            if (event.dataExpanded && event.data != null) {
-                logText.append("\n#### Data\n").append(LogPaneUtils.formatData(event.data));
-            }
-            if (event.stacktraceExpanded && event.stacktrace != null && !event.stacktrace.isEmpty()) {
-                logText.append("\n#### Stack Trace\n");
-                for (Map<String, Object> frame : event.stacktrace) {
-                    Object lineObj = frame.get("line");
-                    String line = lineObj instanceof String ? (String) lineObj : (lineObj != null ? lineObj.toString() : "");
-                    logText.append(line).append("\n");
-                }
+            appendMarkdown(logText, event);
+        }
+        return logText.toString();
+    }
+
+    // One event of formatLogs, shared with the streaming Markdown export
+    static void appendMarkdown(StringBuilder logText, LogProcessor.LogEvent event) {
+        String timestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(event.timestamp));
+        String source = event.source != null ? event.source : "";
+        String deviceId = event.deviceId != null ? event.deviceId : "";
+        String correlationId = event.correlationId != null ? event.correlationId : "";
+        String categoryStr = event.category != null ? event.category : "";
+        String levelStr = LogProcessor.LogLevel.toString(event.level);
+        String codeStr = event.code != null ? event.code.toString() : "N/A";
+        String title = event.title != null ? event.title : "";
+        String description = event.description != null ? event.description : "";
+        logText.append(String.format("### %s [%s] [%s] [%s] [%s] [%s] %s: %s\n%s",
+                timestamp, categoryStr, source, deviceId, correlationId, levelStr, codeStr, title, description));
+        if (event.dataExpanded && event.data != null) {
+            logText.append("\n#### Data\n").append(LogPaneUtils.formatData(event.data));
+        }
+        if (event.stacktraceExpanded && event.stacktrace != null && !event.stacktrace.isEmpty()) {
+            logText.append("\n#### Stack Trace\n");
+            for (Map<String, Object> frame : event.stacktrace) {
+                Object lineObj = frame.get("line");
+                String line = lineObj instanceof String ? (String) lineObj : (lineObj != null ? lineObj.toString() : "");
+                logText.append(line).append("\n");
             }
-            logText.append("\n");
         }
-        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(logText.toString()), null);
-        System.out.println("[LogDisplay] Copied logs to clipboard: length=" + logText.length());
+        logText.append("\n");
     }
-}
\ No newline at end of file
+}
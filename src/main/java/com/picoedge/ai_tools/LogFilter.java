@@ -7,23 +7,29 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class LogFilter {
+    private static final Logger LOGGER = Logger.getLogger(LogFilter.class.getName());
     private String deviceIdFilter = "";
     private String correlationIdFilter = "";
 
     public Collection<LogProcessor.LogEvent> filterLogs(Collection<LogProcessor.LogEvent> logs, Set<Integer> selectedLevels, Set<String> selectedSources,
                                                         boolean allSourcesSelected, String categoryFilter, String searchQuery,
                                                         String deviceIdFilter, String correlationIdFilter, long[] timeRange) {
-        this.deviceIdFilter = deviceIdFilter != null ? deviceIdFilter : "";
-        this.correlationIdFilter = correlationIdFilter != null ? correlationIdFilter : "";
+        // Locals, not the fields: copy and export filter a ViewState snapshot off the EDT
+        String deviceId = deviceIdFilter != null ? deviceIdFilter : "";
+        String correlationId = correlationIdFilter != null ? correlationIdFilter : "";
         long currentTime = System.currentTimeMillis();
         long timeRangeMillis = timeRange[1] - timeRange[0];
         List<LogProcessor.LogEvent> filteredLogs = new ArrayList<>(); // Use List to maintain order
 
         for (LogProcessor.LogEvent event : logs) {
             if (!"All Time".equals(timeRange) && (currentTime - event.getTimestamp()) > timeRangeMillis) {
-                System.out.println("[LogFilter] Filtered out event by timestamp: id=" + event.getId() + ", timestamp=" + event.getTimestamp() + ", timeRange=" + timeRange);
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by timestamp: id=" + event.getId() + ", timestamp=" + event.getTimestamp() + ", timeRange=" + timeRange);
+                }
                 continue;
             }
 
@@ -39,34 +45,46 @@ public class LogFilter {
                     (event.getCode() != null ? event.getCode().toString().toLowerCase() : "") +
                     LogProcessor.LogLevel.toString(event.getLevel()).toLowerCase()).toLowerCase();
             if (!searchQuery.isEmpty() && !fullText.contains(searchQuery.toLowerCase())) {
-                System.out.println("[LogFilter] Filtered out event by search query: id=" + event.getId() + ", query=" + searchQuery);
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by search query: id=" + event.getId() + ", query=" + searchQuery);
+                }
                 continue;
             }
 
             int selectedLevelsInt = selectedLevels.stream().mapToInt(Integer::intValue).reduce(0, (a, b) -> a | b);
             if (selectedLevelsInt != 0 && (event.getLevel() & selectedLevelsInt) == 0) {
-                System.out.println("[LogFilter] Filtered out event by level: id=" + event.getId() + ", level=" + event.getLevel() + ", selectedLevels=" + selectedLevelsInt);
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by level: id=" + event.getId() + ", level=" + event.getLevel() + ", selectedLevels=" + selectedLevelsInt);
+                }
                 continue;
             }
 
             if (!selectedSources.isEmpty() && !allSourcesSelected && !selectedSources.contains(event.getSource())) {
-                System.out.println("[LogFilter] Filtered out event by source: id=" + event.getId() + ", source=" + event.getSource() + ", selectedSources=" + selectedSources);
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by source: id=" + event.getId() + ", source=" + event.getSource() + ", selectedSources=" + selectedSources);
+                }
                 continue;
             }
 
             if (!categoryFilter.isEmpty() && !event.getCategory().startsWith(categoryFilter)) {
-                System.out.println("[LogFilter] Filtered out event by category: id=" + event.getId() + ", category=" + event.getCategory() + ", filterCategory=" + categoryFilter);
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by category: id=" + event.getId() + ", category=" + event.getCategory() + ", filterCategory=" + categoryFilter);
+                }
                 continue;
             }
 
             // Only apply deviceIdFilter if it is non-empty
-            if (!this.deviceIdFilter.isEmpty() && event.getDeviceId() != null && !this.deviceIdFilter.equals(event.getDeviceId())) {
-                System.out.println("[LogFilter] Filtered out event by deviceId: id=" + event.getId() + ", deviceId=" + event.getDeviceId() + ", filterDeviceId=" + this.deviceIdFilter);
+            if (!deviceId.isEmpty() && event.getDeviceId() != null && !deviceId.equals(event.getDeviceId())) {
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by deviceId: id=" + event.getId() + ", deviceId=" + event.getDeviceId() + ", filterDeviceId=" + deviceId);
+                }
                 continue;
             }
 
-            if (!this.correlationIdFilter.isEmpty() && !this.correlationIdFilter.equals(event.getCorrelationId())) {
-                System.out.println("[LogFilter] Filtered out event by correlationId: id=" + event.getId() + ", correlationId=" + event.getCorrelationId() + ", filterCorrelationId=" + this.correlationIdFilter);
+            if (!correlationId.isEmpty() && !correlationId.equals(event.getCorrelationId())) {
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[LogFilter] Filtered out event by correlationId: id=" + event.getId() + ", correlationId=" + event.getCorrelationId() + ", filterCorrelationId=" + correlationId);
+                }
                 continue;
             }
 
@@ -75,7 +93,9 @@ public class LogFilter {
 
         // Sort filtered logs by timestamp to ensure chronological order
         filteredLogs.sort(Comparator.comparingLong(LogProcessor.LogEvent::getTimestamp));
-        System.out.println("[LogFilter] Sorted filtered logs by timestamp, count=" + filteredLogs.size());
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogFilter] Sorted filtered logs by timestamp, count=" + filteredLogs.size());
+        }
         return filteredLogs;
     }
 
@@ -0,0 +1,304 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Application-wide owner of the local WebSocket server on port 1065. Every open project's WebSocketManager attaches
+// here in local-server mode instead of binding its own server, so N projects share one socket: each frame is parsed
+// once, deduplicated once by id, and handed as the same immutable ParsedEvent to every project whose subscription
+// matches its level and category. The server starts with the first attached project and stops with the last,
+// together with the HTTP ingest endpoint on HTTP_PORT and the UDP listener on UDP_PORT.
+@Service(Service.Level.APP)
+public final class LogHubService implements Disposable {
+    private static final Logger LOGGER = Logger.getLogger(LogHubService.class.getName());
+    public static final int PORT = 1065;
+    public static final int HTTP_PORT = PORT + 1; // POST /ingest and GET /health, see HttpIngestServer
+    public static final int UDP_PORT = PORT; // UDP ports are separate from TCP ones, see UdpIngestListener
+    static final int DEDUP_CAPACITY = 50000; // Recently seen event ids, shared by all projects
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SubscriptionIndex<Subscriber> subscriptions = new SubscriptionIndex<>();
+    private final Set<Subscriber> attached = ConcurrentHashMap.newKeySet();
+    private final Map<String, Boolean> recentIds = new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > DEDUP_CAPACITY;
+        }
+    };
+    private WebSocketManager.WebSocketServerImpl server; // Guarded by this; rebuilt on every start
+    private HttpIngestServer httpServer; // Guarded by this; null while the server is stopped or HTTP_PORT was taken
+    private volatile UdpIngestListener udpListener; // Written under this; null while the server is stopped or UDP_PORT was taken
+    private int decoderThreads = WebSocketManager.WebSocketServerImpl.DEFAULT_DECODER_THREADS;
+    private int maxQueuedFrames = FanOutEngine.DEFAULT_MAX_QUEUED_FRAMES;
+    private FanOutEngine.SlowConsumerPolicy slowConsumerPolicy = FanOutEngine.SlowConsumerPolicy.DROP;
+    final LongAdder eventsParsed = new LongAdder();
+    final LongAdder parseFailures = new LongAdder();
+    final LongAdder duplicates = new LongAdder();
+    final LongAdder deliveries = new LongAdder(); // Project deliveries, i.e. events times matching projects
+
+    // A project's view of the hub; called on a server decoder thread with one frame's events that match its filter,
+    // so a batch frame reaches each project as one list
+    public interface Subscriber {
+        void onEvents(List<LogProcessor.ParsedEvent> events, long receivedNanos);
+    }
+
+    public static LogHubService getInstance() {
+        return ApplicationManager.getApplication().getService(LogHubService.class);
+    }
+
+    // Starts the shared server if this is the first subscriber; false when port 1065 is held by another process
+    public synchronized boolean attach(Subscriber subscriber, SubscriptionIndex.Filter filter) {
+        if (server == null) {
+            if (!isPortAvailable(PORT)) {
+                LOGGER.warning("[LogHubService] Failed to start local server: Port " + PORT + " in use");
+                return false;
+            }
+            server = new WebSocketManager.WebSocketServerImpl(PORT, decoderThreads, this::onFrame);
+            server.getFanOut().setMaxQueuedFrames(maxQueuedFrames);
+            server.getFanOut().setPolicy(slowConsumerPolicy);
+            server.start();
+            LOGGER.info("[LogHubService] Started shared local server: port=" + PORT + ", decoderThreads=" + decoderThreads);
+            startHttpServer();
+            startUdpListener();
+        }
+        subscriptions.subscribe(subscriber, filter);
+        attached.add(subscriber);
+        LOGGER.info("[LogHubService] Project attached: subscribers=" + attached.size() + ", level=" + filter.levelMask()
+                + ", category=" + filter.categories() + ", excludeCategory=" + filter.excludeCategories());
+        return true;
+    }
+
+    // Replaces the filter of an attached subscriber
+    public void resubscribe(Subscriber subscriber, SubscriptionIndex.Filter filter) {
+        if (attached.contains(subscriber)) {
+            subscriptions.subscribe(subscriber, filter);
+        }
+    }
+
+    // Stops the shared server once no project is attached
+    public synchronized void detach(Subscriber subscriber) {
+        if (!attached.remove(subscriber)) {
+            return;
+        }
+        subscriptions.unsubscribe(subscriber);
+        LOGGER.info("[LogHubService] Project detached: subscribers=" + attached.size());
+        if (attached.isEmpty()) {
+            stopServer();
+        }
+    }
+
+    public boolean isAttached(Subscriber subscriber) {
+        return attached.contains(subscriber);
+    }
+
+    // Server handler: parse once, drop ids any project has already seen, deliver to every matching project
+    private void onFrame(String message, long receivedNanos) {
+        if (LogProcessor.isBatch(message)) {
+            onBatch(message, receivedNanos);
+            return;
+        }
+        LogProcessor.ParsedEvent event;
+        try {
+            event = LogProcessor.parse(objectMapper, message, true);
+        } catch (Exception e) {
+            parseFailures.increment();
+            LOGGER.log(Level.WARNING, "[LogHubService] Failed to parse message: length=" + message.length() + ", error=" + e.getMessage(), e);
+            return;
+        }
+        if (event == null) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogHubService] Skipping event with null ID: length=" + message.length());
+            }
+            return;
+        }
+        eventsParsed.increment();
+        synchronized (recentIds) {
+            if (!markSeen(event.id())) {
+                return;
+            }
+        }
+        List<LogProcessor.ParsedEvent> events = List.of(event);
+        for (Subscriber subscriber : subscriptions.match(event.level(), event.category())) {
+            deliver(subscriber, events, receivedNanos);
+        }
+    }
+
+    // A JSON array or NDJSON frame: decoded in one pass, then each project receives its matching events as one list.
+    // Returns the events that were new to the hub.
+    private List<LogProcessor.ParsedEvent> onBatch(String frame, long receivedNanos) {
+        List<LogProcessor.ParsedEvent> parsed = new ArrayList<>();
+        try {
+            parseFailures.add(LogProcessor.parseBatch(objectMapper, frame, true, parsed));
+        } catch (IOException e) {
+            parseFailures.increment();
+            LOGGER.log(Level.WARNING, "[LogHubService] Failed to decode batch, keeping the events before the error: length=" + frame.length()
+                    + ", decoded=" + parsed.size() + ", error=" + e.getMessage(), e);
+        }
+        eventsParsed.add(parsed.size());
+        Map<Subscriber, List<LogProcessor.ParsedEvent>> bySubscriber = new LinkedHashMap<>();
+        synchronized (recentIds) {
+            parsed.removeIf(event -> !markSeen(event.id()));
+        }
+        for (LogProcessor.ParsedEvent event : parsed) {
+            for (Subscriber subscriber : subscriptions.match(event.level(), event.category())) {
+                bySubscriber.computeIfAbsent(subscriber, k -> new ArrayList<>()).add(event);
+            }
+        }
+        bySubscriber.forEach((subscriber, events) -> deliver(subscriber, events, receivedNanos));
+        return parsed;
+    }
+
+    // One NDJSON chunk of an HTTP ingest request: delivered like a batch frame from a socket client, then its new
+    // events are forwarded to the connected clients. Returns the number of new events.
+    int ingest(String chunk) {
+        WebSocketManager.WebSocketServerImpl current;
+        synchronized (this) {
+            current = server;
+        }
+        if (current == null) {
+            return 0;
+        }
+        List<LogProcessor.ParsedEvent> fresh = onBatch(chunk, System.nanoTime());
+        for (LogProcessor.ParsedEvent event : fresh) {
+            current.forward(event.message(), null, new SubscriptionIndex.Peek(null, event.level(), event.category(), event.timestamp()));
+        }
+        return fresh.size();
+    }
+
+    // Caller holds the recentIds lock; false for an id some project already received
+    private boolean markSeen(String id) {
+        if (recentIds.putIfAbsent(id, Boolean.TRUE) == null) {
+            return true;
+        }
+        duplicates.increment();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogHubService] Skipping duplicate event: id=" + id);
+        }
+        return false;
+    }
+
+    private void deliver(Subscriber subscriber, List<LogProcessor.ParsedEvent> events, long receivedNanos) {
+        try {
+            subscriber.onEvents(events, receivedNanos);
+            deliveries.add(events.size());
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "[LogHubService] Subscriber failed to handle events: firstId=" + events.get(0).id() + ", count=" + events.size()
+                    + ", error=" + e.getMessage(), e);
+        }
+    }
+
+    // Injects an event as if a client had sent it: delivered to the matching projects and forwarded to the
+    // connected clients. Returns the number of clients it was forwarded to, or -1 when the server is not running.
+    public int publish(String message) {
+        WebSocketManager.WebSocketServerImpl current;
+        synchronized (this) {
+            current = server;
+        }
+        if (current == null) {
+            return -1;
+        }
+        onFrame(message, System.nanoTime());
+        return current.forward(message, null);
+    }
+
+    // decoderThreads takes effect the next time the shared server starts
+    public synchronized void configure(int decoderThreads, int maxQueuedFrames, FanOutEngine.SlowConsumerPolicy slowConsumerPolicy) {
+        this.decoderThreads = decoderThreads;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        if (server != null) {
+            server.getFanOut().setMaxQueuedFrames(maxQueuedFrames);
+            server.getFanOut().setPolicy(slowConsumerPolicy);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    public synchronized WebSocketManager.WebSocketServerImpl getServer() {
+        return server;
+    }
+
+    public String summary() {
+        UdpIngestListener udp = udpListener;
+        return "subscribers=" + attached.size() + ", eventsParsed=" + eventsParsed.sum() + ", parseFailures=" + parseFailures.sum()
+                + ", duplicates=" + duplicates.sum() + ", deliveries=" + deliveries.sum() + (udp != null ? ", udp: " + udp.summary() : "");
+    }
+
+    // Caller holds the monitor. The WebSocket server runs without the HTTP endpoint if its port is taken.
+    private void startHttpServer() {
+        try {
+            httpServer = new HttpIngestServer(HTTP_PORT, this::ingest, () -> {
+                WebSocketManager.WebSocketServerImpl current = getServer();
+                return current != null ? current.getActiveConnections().size() : 0;
+            });
+            httpServer.start();
+        } catch (IOException e) {
+            httpServer = null;
+            LOGGER.warning("[LogHubService] HTTP ingest unavailable: port=" + HTTP_PORT + ", error=" + e.getMessage());
+        }
+    }
+
+    // Caller holds the monitor
+    private void startUdpListener() {
+        try {
+            udpListener = new UdpIngestListener(UDP_PORT, this::ingest);
+            udpListener.start();
+        } catch (IOException e) {
+            udpListener = null;
+            LOGGER.warning("[LogHubService] UDP ingest unavailable: port=" + UDP_PORT + ", error=" + e.getMessage());
+        }
+    }
+
+    // Caller holds the monitor
+    private void stopServer() {
+        if (udpListener != null) {
+            udpListener.stop();
+            udpListener = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop();
+            httpServer = null;
+        }
+        if (server != null) {
+            server.stopServer();
+            server = null;
+            LOGGER.info("[LogHubService] Stopped shared local server: " + summary());
+        }
+        synchronized (recentIds) {
+            recentIds.clear();
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        attached.forEach(subscriptions::unsubscribe);
+        attached.clear();
+        stopServer();
+    }
+
+    private static boolean isPortAvailable(int port) {
+        try (ServerSocket socket = new ServerSocket(port)) {
+            socket.setReuseAddress(true);
+            LOGGER.fine(() -> "[LogHubService] Port " + port + " is available");
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "[LogHubService] Port " + port + " is not available: error=" + e.getMessage(), e);
+            return false;
+        }
+    }
+}
@@ -1,36 +1,59 @@
 package com.picoedge.ai_tools;
 
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
-import java.util.Set;
 import javax.swing.JPanel;
 import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class LogPane {
+    private static final Logger LOGGER = Logger.getLogger(LogPane.class.getName());
     private final Project project;
     private final WebSocketManager webSocketManager;
+    private final FileTailer fileTailer;
     private final LogProcessor logProcessor;
     private final LogFilter logFilter;
     private final LogDisplay logDisplay;
+    private final PipelineMetrics metrics = new PipelineMetrics();
     private final Properties envProps = new Properties();
     private VirtualFile envFile;
     private LogPaneUI ui = null;
+    private RefreshScheduler refreshScheduler = null;
+    private LogViewRefresher viewRefresher = null;
+    // Session capture: the recorder is read on socket threads for every message, the replay runs on its own thread
+    private volatile SessionRecorder recorder = null;
+    private volatile Thread replayThread = null;
+    private volatile boolean replayCancelled = false;
 
     public LogPane(Project project) {
         this.project = project;
-        this.logProcessor = new LogProcessor(this::updateUI);
+        this.logProcessor = new LogProcessor(this::updateUI, metrics);
         this.logFilter = new LogFilter();
         this.logDisplay = new LogDisplay();
-        this.webSocketManager = new WebSocketManager(project, this::handleMessage, this::updateUI, logProcessor);
+        this.webSocketManager = new WebSocketManager(project, this::handleMessage, this::handleHubEvents, this::updateUI, logProcessor);
+        this.fileTailer = new FileTailer(project.getName(), Path.of(project.getBasePath() != null ? project.getBasePath() : "."),
+                this::handleTailedEvents, logProcessor::getMaxLogs);
         this.ui = new LogPaneUI(
                 this::handleHyperlink,
                 this::updateUI,
@@ -40,20 +63,11 @@ public class LogPane {
                 this::updateUI,
                 webSocketManager::toggleConnection,
                 () -> new NewEntryDialog(project, webSocketManager, logProcessor, this).show(),
-                () -> new SettingsDialog(project, envFile, envProps, logProcessor, webSocketManager).show(),
+                () -> new SettingsDialog(project, envFile, envProps, logProcessor, webSocketManager, refreshScheduler, fileTailer, logDisplay).show(),
                 () -> logProcessor.setDefaultStackExpanded(!logProcessor.isDefaultStackExpanded()),
                 () -> logProcessor.setDefaultDataExpanded(!logProcessor.isDefaultDataExpanded()),
                 () -> { logProcessor.clearLogs(); updateUI(); },
-                () -> logDisplay.copyLogs(new ArrayList<>(logFilter.filterLogs(
-                        logProcessor.getAllLogs(),
-                        convertToSet(ui.getSelectedLevels()),
-                        new HashSet<>(ui.getSelectedSources()),
-                        ui.isAllSourcesSelected(),
-                        ui.getCategoryFilter(),
-                        ui.getSearchQuery(),
-                        logFilter.getDeviceIdFilter(),
-                        logFilter.getCorrelationIdFilter(),
-                        convertTimeRange(ui.getTimeRange())))),
+                this::copyLogs,
                 deviceId -> {
                     logFilter.setDeviceIdFilter(deviceId);
                     updateUI();
@@ -62,8 +76,25 @@ public class LogPane {
                     logFilter.setCorrelationIdFilter(correlationId);
                     updateUI();
                 },
-                logFilter // Pass LogFilter instance to LogPaneUI
+                logFilter, // Pass LogFilter instance to LogPaneUI
+                metrics,
+                this::toggleRecording,
+                this::startReplay,
+                this::exportLogs,
+                this::importLogs,
+                webSocketManager::getUpstreamStatuses,
+                count -> logProcessor.getRateHistogram(count, ui.isAllSourcesSelected() ? null : new HashSet<>(ui.getSelectedSources())),
+                this::jumpToTime
         );
+        this.viewRefresher = new LogViewRefresher(logProcessor, logFilter, logDisplay, ui, metrics);
+        this.refreshScheduler = new RefreshScheduler(ui.getContent(), RefreshScheduler.DEFAULT_MAX_REFRESHES_PER_SECOND, this::renderUI);
+        metrics.setGauges(logProcessor::getStoreSize, logProcessor::getApproxStoreBytes,
+                () -> Math.max(0, logProcessor.getNextStoreIndex() - viewRefresher.getNextUnrenderedIndex()));
+        metrics.registerMBean(project.getLocationHash(), project.getName());
+        Disposer.register(project, metrics::unregisterMBean);
+        Disposer.register(project, this::stopSessionCapture);
+        Disposer.register(project, webSocketManager::dispose);
+        Disposer.register(project, fileTailer::stop);
         loadSettings();
         updateUI();
     }
@@ -75,12 +106,12 @@ public class LogPane {
     private void loadSettings() {
         String basePath = project.getBasePath();
         if (basePath == null) {
-            System.out.println("[LogPane] Project base path is null, skipping .env load");
+            LOGGER.info("[LogPane] Project base path is null, skipping .env load");
             return;
         }
         VirtualFile projectDir = VfsUtil.findFileByIoFile(new java.io.File(basePath), true);
         if (projectDir == null) {
-            System.out.println("[LogPane] Project directory not found, skipping .env load");
+            LOGGER.info("[LogPane] Project directory not found, skipping .env load");
             return;
         }
         envFile = projectDir.findChild(".env");
@@ -90,53 +121,310 @@ public class LogPane {
                 String maxLogsStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_LOGS", "10000");
                 String wsUrlStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_WS_URL", "ws://localhost:1065");
                 String useLocalServerStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_USE_LOCAL_SERVER", "false");
+                String maxRefreshHzStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_REFRESH_HZ", String.valueOf(RefreshScheduler.DEFAULT_MAX_REFRESHES_PER_SECOND));
+                String serverDecodersStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_SERVER_DECODERS", String.valueOf(WebSocketManager.WebSocketServerImpl.DEFAULT_DECODER_THREADS));
+                String clientQueueLimitStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_CLIENT_QUEUE_LIMIT", String.valueOf(FanOutEngine.DEFAULT_MAX_QUEUED_FRAMES));
+                String slowClientPolicyStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_SLOW_CLIENT_POLICY", FanOutEngine.SlowConsumerPolicy.DROP.name());
+                String hubCategoriesStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_HUB_CATEGORIES", "");
+                String reorderWindowStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_REORDER_WINDOW_MS", String.valueOf(UpstreamMerger.DEFAULT_REORDER_WINDOW_MS));
+                String tailFilesStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_TAIL_FILES", "");
+                String copyMaxBytesStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_COPY_MAX_BYTES", String.valueOf(LogDisplay.DEFAULT_COPY_MAX_BYTES));
+                String copyKeepStr = envProps.getProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_COPY_KEEP", LazyLogTransferable.Keep.NEWEST.name());
                 logProcessor.setMaxLogs(Integer.parseInt(maxLogsStr));
+                refreshScheduler.setMaxRefreshesPerSecond(Integer.parseInt(maxRefreshHzStr));
                 webSocketManager.setWsUrl(wsUrlStr);
+                webSocketManager.setDecoderThreads(Integer.parseInt(serverDecodersStr));
+                webSocketManager.setMaxQueuedFrames(Integer.parseInt(clientQueueLimitStr));
+                webSocketManager.setSlowConsumerPolicy(FanOutEngine.SlowConsumerPolicy.valueOf(slowClientPolicyStr));
+                webSocketManager.setHubCategories(SubscriptionIndex.parseCategoryList(hubCategoriesStr));
+                webSocketManager.setReorderWindowMs(Integer.parseInt(reorderWindowStr));
                 webSocketManager.setUseLocalServer(Boolean.parseBoolean(useLocalServerStr));
-                System.out.println("[LogPane] Loaded .env settings: maxLogs=" + maxLogsStr + ", wsUrl=" + wsUrlStr + ", useLocalServer=" + useLocalServerStr);
-            } catch (IOException | NumberFormatException e) {
-                System.out.println("[LogPane] Failed to load .env settings: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                logDisplay.setCopyMaxBytes(Long.parseLong(copyMaxBytesStr));
+                logDisplay.setCopyKeep(LazyLogTransferable.Keep.valueOf(copyKeepStr));
+                fileTailer.setFiles(tailFilesStr);
+                LOGGER.info("[LogPane] Loaded .env settings: maxLogs=" + maxLogsStr + ", wsUrl=" + wsUrlStr + ", useLocalServer=" + useLocalServerStr + ", maxRefreshHz=" + maxRefreshHzStr
+                        + ", serverDecoders=" + serverDecodersStr + ", clientQueueLimit=" + clientQueueLimitStr + ", slowClientPolicy=" + slowClientPolicyStr + ", hubCategories=" + hubCategoriesStr + ", reorderWindowMs=" + reorderWindowStr
+                        + ", tailFiles=" + tailFilesStr + ", copyMaxBytes=" + copyMaxBytesStr + ", copyKeep=" + copyKeepStr);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "[LogPane] Failed to load .env settings: error=" + e.getMessage(), e);
             }
         } else {
-            System.out.println("[LogPane] .env file not found, using defaults: maxLogs=10000, wsUrl=ws://localhost:1065, useLocalServer=false");
+            LOGGER.info("[LogPane] .env file not found, using defaults: maxLogs=10000, wsUrl=ws://localhost:1065, useLocalServer=false");
             webSocketManager.setWsUrl("ws://localhost:1065");
             webSocketManager.setUseLocalServer(false);
         }
     }
 
     public void handleMessage(String message) {
-        System.out.println("[LogPane] Received message for processing: " + message);
+        handleMessage(message, System.nanoTime());
+    }
+
+    // receivedNanos is when the frame came off the socket, the first stamp of the end-to-end latency trace
+    public void handleMessage(String message, long receivedNanos) {
+        if (LOGGER.isLoggable(Level.FINEST)) {
+            LOGGER.finest("[LogPane] Received message for processing: " + message);
+        }
+        recordMessage(message, receivedNanos);
         try {
             synchronized (logProcessor) {
-                logProcessor.processMessage(message, category -> {
-                    System.out.println("[LogPane] New category detected: " + category);
-                    if (ui != null) ApplicationManager.getApplication().invokeLater(() -> {
-                        ui.addSource(category);
-                        updateUI();
-                    });
-                }, source -> {
-                    System.out.println("[LogPane] New source detected: " + source);
-                    if (ui != null) ApplicationManager.getApplication().invokeLater(() -> {
-                        ui.addSource(source);
-                        updateUI();
-                    });
-                });
+                logProcessor.processMessage(message, receivedNanos, this::onNewCategory, this::onNewSource);
             }
-            System.out.println("[LogPane] Message processed, triggering UI update");
-            ApplicationManager.getApplication().invokeLater(this::updateUI);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogPane] Message processed, triggering UI update");
+            }
+            updateUI();
         } catch (Exception e) {
-            System.out.println("[LogPane] Error processing message: " + message + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+            LOGGER.log(Level.WARNING, "[LogPane] Error processing message: length=" + message.length() + ", error=" + e.getMessage(), e);
+        }
+    }
+
+    // Events from the shared local server, already parsed and deduplicated once for every open project;
+    // all events of one frame arrive together and cost one store insertion and one UI signal
+    private void handleHubEvents(List<LogProcessor.ParsedEvent> events, long receivedNanos) {
+        for (LogProcessor.ParsedEvent event : events) {
+            recordMessage(event.message(), receivedNanos);
+        }
+        synchronized (logProcessor) {
+            logProcessor.processParsed(events, receivedNanos, this::onNewCategory, this::onNewSource);
+        }
+        updateUI();
+    }
+
+    // Lines of tailed project files; the files are their own record, so session recording leaves them out
+    private void handleTailedEvents(List<LogProcessor.ParsedEvent> events) {
+        synchronized (logProcessor) {
+            logProcessor.processParsed(events, System.nanoTime(), this::onNewCategory, this::onNewSource);
+        }
+        updateUI();
+    }
+
+    private void recordMessage(String message, long receivedNanos) {
+        SessionRecorder activeRecorder = recorder;
+        if (activeRecorder != null) {
+            try {
+                activeRecorder.record(message, receivedNanos);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "[LogPane] Session recording failed, stopping: error=" + e.getMessage(), e);
+                stopRecording();
+            }
+        }
+    }
+
+    private void onNewCategory(String category) {
+        LOGGER.fine(() -> "[LogPane] New category detected: " + category);
+        if (ui != null) ui.addSource(category);
+    }
+
+    private void onNewSource(String source) {
+        LOGGER.fine(() -> "[LogPane] New source detected: " + source);
+        if (ui != null) ui.addSource(source);
+    }
+
+    private void toggleRecording() {
+        if (recorder != null) {
+            stopRecording();
+            return;
+        }
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Record Session", "Capture incoming log messages for replay", SessionRecorder.EXTENSION);
+        String defaultName = "session-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "." + SessionRecorder.EXTENSION;
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project).save(defaultName);
+        if (target == null) {
+            ui.updateRecordingState(false);
+            return;
+        }
+        try {
+            recorder = new SessionRecorder(target.getFile().toPath());
+            ui.updateRecordingState(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[LogPane] Failed to start session recording: error=" + e.getMessage(), e);
+            Messages.showErrorDialog(project, "Could not create session capture: " + e.getMessage(), "Error");
+            ui.updateRecordingState(false);
+        }
+    }
+
+    private synchronized void stopRecording() {
+        SessionRecorder activeRecorder = recorder;
+        recorder = null;
+        if (activeRecorder != null) {
+            try {
+                activeRecorder.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "[LogPane] Failed to close session capture: error=" + e.getMessage(), e);
+            }
+        }
+        if (ui != null) ui.updateRecordingState(false);
+    }
+
+    // Clears the pane and feeds a capture through handleMessage, so every replay starts from the same empty store.
+    // speed is a multiple of the recorded pace, 0 for as fast as the pipeline accepts; pressing again cancels.
+    private void startReplay(double speed) {
+        Thread running = replayThread;
+        if (running != null && running.isAlive()) {
+            replayCancelled = true;
+            return;
+        }
+        if (webSocketManager.isConnected()) {
+            Messages.showWarningDialog(project, "Disconnect first so live traffic does not mix into the replay.", "Replay Session");
+            return;
+        }
+        VirtualFile capture = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor().withTitle("Replay Session"), project, null);
+        if (capture == null) {
+            return;
+        }
+        Path file = Path.of(capture.getPath());
+        logProcessor.clearLogs();
+        ui.clearSources();
+        metrics.reset();
+        updateUI();
+        replayCancelled = false;
+        Thread thread = new Thread(() -> {
+            try {
+                SessionReplayer.Result result = SessionReplayer.replay(file, speed, this::handleMessage, () -> replayCancelled);
+                String summary = String.format("%s %d messages in %.1f s (%.0f msg/s, recorded span %.1f s, max lag %.0f ms).",
+                        result.cancelled() ? "Cancelled after" : "Replayed", result.messages(), result.elapsedNanos() / 1e9,
+                        result.messagesPerSecond(), result.capturedNanos() / 1e9, result.maxLagNanos() / 1e6);
+                SwingUtilities.invokeLater(() -> Messages.showInfoMessage(project, summary, "Replay Session"));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "[LogPane] Session replay failed: error=" + e.getMessage(), e);
+                SwingUtilities.invokeLater(() -> Messages.showErrorDialog(project, "Session replay failed: " + e.getMessage(), "Error"));
+            } finally {
+                ui.updateReplayState(false);
+            }
+        }, "AI Logger Session Replay");
+        thread.setDaemon(true);
+        replayThread = thread;
+        ui.updateReplayState(true);
+        thread.start();
+    }
+
+    // Only the filter inputs are read on the EDT. A background task gathers and filters the events, puts them on the
+    // clipboard unformatted and then formats them, so the EDT never does either
+    private void copyLogs() {
+        LogViewRefresher.ViewState viewState = viewRefresher.currentViewState();
+        new Task.Backgroundable(project, "Copying logs", true) {
+            @Override
+            public void run(ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                List<LogProcessor.LogEvent> logs = viewRefresher.filteredLogs(viewState);
+                if (indicator.isCanceled()) {
+                    return;
+                }
+                LazyLogTransferable contents = logDisplay.copyLogs(logs);
+                indicator.setIndeterminate(false);
+                contents.prepare(indicator::isCanceled, indicator::setFraction);
+            }
+        }.queue();
+    }
+
+    // Streams the filtered view as it is now; events arriving during the export are not part of it. Only the filter
+    // inputs are read on the EDT: gathering and filtering the events is part of the background task
+    private void exportLogs() {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Logs", "Save the filtered logs as gzip NDJSON (importable) or Markdown",
+                "gz", LogArchive.MARKDOWN_EXTENSION);
+        String defaultName = "logs-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "." + LogArchive.NDJSON_EXTENSION;
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project).save(defaultName);
+        if (target == null) {
+            return;
+        }
+        Path file = target.getFile().toPath();
+        LogViewRefresher.ViewState viewState = viewRefresher.currentViewState();
+        new Task.Backgroundable(project, "Exporting logs", true) {
+            private LogArchive.Result result;
+
+            @Override
+            public void run(ProgressIndicator indicator) {
+                indicator.setText2(file.getFileName().toString());
+                indicator.setIndeterminate(true);
+                List<LogProcessor.LogEvent> logs = viewRefresher.filteredLogs(viewState);
+                indicator.setIndeterminate(false);
+                try {
+                    result = LogArchive.export(logs, file, LogArchive.Format.forFile(file), indicator::isCanceled, indicator::setFraction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (!result.cancelled()) {
+                    LOGGER.info("[LogPane] Exported logs: file=" + file + ", events=" + result.events() + ", bytes=" + result.bytes());
+                    Messages.showInfoMessage(project, String.format("Exported %d events (%.1f MB) to %s.", result.events(),
+                            result.bytes() / 1e6, file.getFileName()), "Export Logs");
+                }
+            }
+
+            @Override
+            public void onThrowable(Throwable error) {
+                LOGGER.log(Level.WARNING, "[LogPane] Log export failed: file=" + file + ", error=" + error.getMessage(), error);
+                Messages.showErrorDialog(project, "Log export failed: " + error.getMessage(), "Error");
+            }
+        }.queue();
+    }
+
+    // Adds an export's events to the store next to whatever it holds, deduplicated by id like live traffic;
+    // only the newest maxLogs are kept, as always
+    private void importLogs() {
+        VirtualFile source = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor().withTitle("Import Logs"), project, null);
+        if (source == null) {
+            return;
+        }
+        Path file = Path.of(source.getPath());
+        new Task.Backgroundable(project, "Importing logs", true) {
+            private LogArchive.Result result;
+
+            @Override
+            public void run(ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                indicator.setText2(file.getFileName().toString());
+                try {
+                    result = LogArchive.importFile(file, LogPane.this::ingestImported, indicator::isCanceled, indicator::setFraction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                LOGGER.info("[LogPane] Imported logs: file=" + file + ", newEvents=" + result.events() + ", cancelled=" + result.cancelled());
+                Messages.showInfoMessage(project, String.format("%s %d new events from %s.", result.cancelled() ? "Cancelled after importing" : "Imported",
+                        result.events(), file.getFileName()), "Import Logs");
+            }
+
+            @Override
+            public void onThrowable(Throwable error) {
+                LOGGER.log(Level.WARNING, "[LogPane] Log import failed: file=" + file + ", error=" + error.getMessage(), error);
+                Messages.showErrorDialog(project, "Log import failed: " + error.getMessage(), "Error");
+            }
+        }.queue();
+    }
+
+    // One chunk of an import, stored as one batch frame; returns how many of its events were new
+    private int ingestImported(String chunk) {
+        int added;
+        synchronized (logProcessor) {
+            long before = logProcessor.getNextStoreIndex();
+            logProcessor.processMessage(chunk, System.nanoTime(), this::onNewCategory, this::onNewSource);
+            added = (int) (logProcessor.getNextStoreIndex() - before);
         }
+        updateUI();
+        return added;
+    }
+
+    private void stopSessionCapture() {
+        replayCancelled = true;
+        stopRecording();
     }
 
     private void handleHyperlink(String url) {
         if (ui != null) {
             if (url.startsWith("stack:")) {
                 String eventId = url.substring("stack:".length());
+                viewRefresher.refreshEntry(eventId);
                 logProcessor.toggleStack(eventId);
                 updateUI();
             } else if (url.startsWith("data:")) {
                 String eventId = url.substring("data:".length());
+                viewRefresher.refreshEntry(eventId);
                 logProcessor.toggleData(eventId);
                 updateUI();
             } else if (url.startsWith("category:")) {
@@ -155,6 +443,9 @@ public class LogPane {
                 String correlationId = url.substring("correlationId:".length());
                 logFilter.setCorrelationIdFilter(correlationId);
                 updateUI();
+            } else if (url.startsWith("trace:")) {
+                String correlationId = url.substring("trace:".length());
+                new TraceDialog(correlationId, logProcessor.getTrace(correlationId)).show();
             } else if (url.startsWith("level:")) {
                 String levelStr = url.substring("level:".length());
                 int level = LogProcessor.LogLevel.valueOf(levelStr).getValue();
@@ -164,68 +455,39 @@ public class LogPane {
         }
     }
 
+    // Only marks the view dirty; RefreshScheduler coalesces bursts into at most N renders per second on the EDT
     private void updateUI() {
-        if (ui != null) {
-            System.out.println("[LogPane] Updating UI with logs");
-            ApplicationManager.getApplication().invokeLater(() -> {
-                ui.setLogContent(logDisplay.generateLogHtml(new ArrayList<>(logFilter.filterLogs(
-                        logProcessor.getAllLogs(),
-                        convertToSet(ui.getSelectedLevels()),
-                        new HashSet<>(ui.getSelectedSources()),
-                        ui.isAllSourcesSelected(),
-                        ui.getCategoryFilter(),
-                        ui.getSearchQuery(),
-                        logFilter.getDeviceIdFilter(),
-                        logFilter.getCorrelationIdFilter(),
-                        convertTimeRange(ui.getTimeRange())))));
-                ui.updateConnectionStatus(webSocketManager.isConnected());
-                ui.updateStackButton(logProcessor.isDefaultStackExpanded());
-                ui.updateDataButton(logProcessor.isDefaultDataExpanded());
-                ui.updateClearDeviceIdButton(logFilter.getDeviceIdFilter());
-                ui.updateClearCorrelationIdButton(logFilter.getCorrelationIdFilter());
-            });
-        }
-    }
-
-    private Set<Integer> convertToSet(int levelMask) {
-        Set<Integer> levels = new HashSet<>();
-        if (levelMask == 255) {
-            for (LogProcessor.LogLevel level : LogProcessor.LogLevel.values()) {
-                levels.add(level.getValue());
-            }
-        } else {
-            for (LogProcessor.LogLevel level : LogProcessor.LogLevel.values()) {
-                if ((levelMask & level.getValue()) != 0) {
-                    levels.add(level.getValue());
-                }
-            }
+        if (refreshScheduler != null) {
+            refreshScheduler.requestRefresh();
+        }
+    }
+
+    private void renderUI() {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogPane] Updating UI with logs");
         }
-        return levels;
-    }
-
-    private long[] convertTimeRange(String timeRange) {
-        long currentTime = System.currentTimeMillis();
-        long[] range = new long[2];
-        range[1] = currentTime;
-        switch (timeRange) {
-            case "Last 5 Minutes":
-                range[0] = currentTime - (5 * 60 * 1000);
-                break;
-            case "Last 1 Hour":
-                range[0] = currentTime - (1 * 60 * 60 * 1000);
-                break;
-            case "Last 24 Hours":
-                range[0] = currentTime - (24 * 60 * 60 * 1000);
-                break;
-            case "Last 7 Days":
-                range[0] = currentTime - (7 * 24 * 60 * 1000);
-                break;
-            case "All Time":
-            default:
-                range[0] = 0;
-                break;
-        }
-        System.out.println("[LogPane] Converted time range: " + timeRange + " to [" + range[0] + ", " + range[1] + "]");
-        return range;
-    }
-}
\ No newline at end of file
+        long start = metrics.start();
+        viewRefresher.refresh();
+        metrics.stop(metrics.refresh, start);
+        ui.repaintHistogram();
+        ui.updateConnectionStatus(webSocketManager.isConnected());
+        ui.updateStackButton(logProcessor.isDefaultStackExpanded());
+        ui.updateDataButton(logProcessor.isDefaultDataExpanded());
+        ui.updateClearDeviceIdButton(logFilter.getDeviceIdFilter());
+        ui.updateClearCorrelationIdButton(logFilter.getCorrelationIdFilter());
+    }
+
+    // Shows the first event of the clicked bucket that the view shows. The rate index yields that second's stored
+    // events and the current filters pick the shown ones, so arrival order and the view size do not matter.
+    private void jumpToTime(long bucketStartMillis) {
+        List<LogProcessor.LogEvent> bucket = logProcessor.getBucketEvents(bucketStartMillis);
+        List<LogProcessor.LogEvent> shown = viewRefresher.filterLogs(bucket, viewRefresher.currentViewState());
+        String second = RateHistogramPanel.formatTime(bucketStartMillis);
+        if (shown.isEmpty()) {
+            ui.showHistogramStatus(bucket.isEmpty() ? "No stored events at " + second
+                    : bucket.size() + " events at " + second + " are hidden by the current filters");
+            return;
+        }
+        ui.scrollToEntry(LogDisplay.elementId(shown.get(0)), () -> ui.showHistogramStatus("Events at " + second + " are not in the view yet"));
+    }
+}
@@ -3,16 +3,28 @@ package com.picoedge.ai_tools;
 import com.picoedge.ai_tools.utils.LogPaneUtils;
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultCaret;
+import javax.swing.text.Element;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.HTMLDocument;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class LogPaneUI {
+    private static final Logger LOGGER = Logger.getLogger(LogPaneUI.class.getName());
     private final JPanel content;
     private final JEditorPane logArea;
     private final JComboBox<String> levelFilter;
@@ -36,14 +48,25 @@ public class LogPaneUI {
     private String searchQuery = "";
     private String timeRange = "All Time";
     private final LogFilter logFilter; // Added to access filter states
+    private final PipelineMetrics metrics;
+    private final Supplier<List<WebSocketManager.UpstreamStatus>> upstreamStatuses;
+    private final JLabel metricsLabel;
+    private final Timer metricsTimer; // Runs only while the metrics strip is expanded
+    private final JToggleButton recordToggle;
+    private final JButton replayButton;
+    private final RateHistogramPanel rateHistogram;
 
     public LogPaneUI(Consumer<String> onHyperlinkActivated, Runnable onTimeRangeChanged, Runnable onLevelFilterChanged,
                      Runnable onSourceFilterChanged, Runnable onCategoryFilterChanged, Runnable onSearchQueryChanged,
                      Runnable onConnect, Runnable onNewEntry, Runnable onSettings, Runnable onToggleStacks,
                      Runnable onToggleData, Runnable onClearLogs, Runnable onCopyLogs,
                      Consumer<String> onSetDeviceIdFilter, Consumer<String> onSetCorrelationIdFilter,
-                     LogFilter logFilter) {
+                     LogFilter logFilter, PipelineMetrics metrics, Runnable onToggleRecording, DoubleConsumer onReplay,
+                     Runnable onExport, Runnable onImport, Supplier<List<WebSocketManager.UpstreamStatus>> upstreamStatuses,
+                     IntFunction<LogProcessor.RateHistogram> rateHistogram, LongConsumer onJumpToTime) {
         this.logFilter = logFilter; // Initialize LogFilter
+        this.metrics = metrics;
+        this.upstreamStatuses = upstreamStatuses;
         content = new JPanel(new BorderLayout());
         JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
 
@@ -313,7 +336,7 @@ public class LogPaneUI {
         clearDeviceIdButton.addActionListener(e -> {
             if (!logFilter.getDeviceIdFilter().isEmpty()) {
                 onSetDeviceIdFilter.accept(""); // Clear filter if active
-                System.out.println("[LogPaneUI] Cleared deviceId filter");
+                LOGGER.fine(() -> "[LogPaneUI] Cleared deviceId filter");
             } else {
                 handleClearDeviceId(onSetDeviceIdFilter); // Open prompt if no filter
             }
@@ -326,7 +349,7 @@ public class LogPaneUI {
         clearCorrelationIdButton.addActionListener(e -> {
             if (!logFilter.getCorrelationIdFilter().isEmpty()) {
                 onSetCorrelationIdFilter.accept(""); // Clear filter if active
-                System.out.println("[LogPaneUI] Cleared correlationId filter");
+                LOGGER.fine(() -> "[LogPaneUI] Cleared correlationId filter");
             } else {
                 handleClearCorrelationId(onSetCorrelationIdFilter); // Open prompt if no filter
             }
@@ -361,8 +384,72 @@ public class LogPaneUI {
         });
 
         JScrollPane scrollPane = new JScrollPane(logArea);
-        content.add(filterPanel, BorderLayout.NORTH);
+
+        // Collapsible pipeline metrics strip; latency timing is only switched on while it is open and showing
+        JPanel metricsPanel = new JPanel(new BorderLayout());
+        JToggleButton metricsToggle = new JToggleButton("Metrics ▸");
+        metricsToggle.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        metricsToggle.setMargin(new Insets(0, 4, 0, 4));
+        metricsToggle.setToolTipText("Show/Hide Pipeline Metrics");
+        metricsLabel = new JLabel();
+        metricsLabel.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        metricsLabel.setVisible(false);
+        metricsTimer = new Timer(1000, e -> updateMetricsStrip());
+        metricsToggle.addActionListener(e -> {
+            boolean expanded = metricsToggle.isSelected();
+            metricsToggle.setText(expanded ? "Metrics ▾" : "Metrics ▸");
+            metricsLabel.setVisible(expanded);
+            if (expanded) {
+                updateMetricsStrip();
+                metricsTimer.start();
+            } else {
+                metricsTimer.stop();
+                metrics.setPanelTimingEnabled(false);
+            }
+        });
+        metricsPanel.add(metricsToggle, BorderLayout.WEST);
+        metricsPanel.add(metricsLabel, BorderLayout.CENTER);
+
+        // Session capture for repeatable profiling: record what arrives, replay it into a cleared pane
+        JPanel capturePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 2, 0));
+        recordToggle = new JToggleButton("● Rec");
+        recordToggle.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        recordToggle.setMargin(new Insets(0, 4, 0, 4));
+        recordToggle.setToolTipText("Record Incoming Messages to a Session Capture");
+        recordToggle.addActionListener(e -> onToggleRecording.run());
+        JComboBox<String> replaySpeed = new JComboBox<>(SessionReplayer.SPEEDS);
+        replaySpeed.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        replaySpeed.setToolTipText("Replay Speed");
+        replayButton = new JButton("▶ Replay");
+        replayButton.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        replayButton.setMargin(new Insets(0, 4, 0, 4));
+        replayButton.setToolTipText("Clear Logs and Replay a Session Capture");
+        replayButton.addActionListener(e -> onReplay.accept(SessionReplayer.parseSpeed((String) replaySpeed.getSelectedItem())));
+        JButton exportButton = new JButton("Export…");
+        exportButton.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        exportButton.setMargin(new Insets(0, 4, 0, 4));
+        exportButton.setToolTipText("Export the Filtered Logs to gzip NDJSON or Markdown");
+        exportButton.addActionListener(e -> onExport.run());
+        JButton importButton = new JButton("Import…");
+        importButton.setFont(new Font("SansSerif", Font.PLAIN, 11));
+        importButton.setMargin(new Insets(0, 4, 0, 4));
+        importButton.setToolTipText("Import an NDJSON Log Export");
+        importButton.addActionListener(e -> onImport.run());
+        capturePanel.add(exportButton);
+        capturePanel.add(importButton);
+        capturePanel.add(recordToggle);
+        capturePanel.add(replaySpeed);
+        capturePanel.add(replayButton);
+        metricsPanel.add(capturePanel, BorderLayout.EAST);
+
+        this.rateHistogram = new RateHistogramPanel(rateHistogram, onJumpToTime);
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.add(filterPanel, BorderLayout.NORTH);
+        headerPanel.add(this.rateHistogram, BorderLayout.SOUTH);
+
+        content.add(headerPanel, BorderLayout.NORTH);
         content.add(scrollPane, BorderLayout.CENTER);
+        content.add(metricsPanel, BorderLayout.SOUTH);
         updateLevelFilter();
         updateSourceFilterDisplay();
         updateClearDeviceIdButton(logFilter.getDeviceIdFilter()); // Initialize with current filter
@@ -373,24 +460,192 @@ public class LogPaneUI {
         return content;
     }
 
-    public void setLogContent(String html) {
+    private void updateMetricsStrip() {
+        boolean showing = content.isShowing();
+        metrics.setPanelTimingEnabled(showing);
+        if (!showing) {
+            return;
+        }
+        metricsLabel.setText(String.format(
+                " in %.0f/s | parse %s | queue %d | dedup %d | store %d (%s) | evicted %d | filter %s | render %s | EDT %s + doc %s | e2e %s | producer %s",
+                metrics.getIngestRatePerSecond(), formatLatency(metrics.parse), metrics.getQueueDepth(), metrics.getDedupHits(),
+                metrics.getStoreSize(), formatBytes(metrics.getStoreBytes()), metrics.getEvictions(), formatLatency(metrics.filter),
+                formatLatency(metrics.render), formatLatency(metrics.refresh), formatLatency(metrics.document),
+                formatLatency(metrics.receiveToRendered) + maxSuffix(metrics.receiveToRendered),
+                formatLatency(metrics.producerToScreen) + maxSuffix(metrics.producerToScreen)) + formatUpstreams());
+        metricsLabel.setToolTipText("<html>p50/p99 per stage; e2e is socket receive to on screen, producer is the producer's "
+                + "timestamp to on screen, corrected for clock skew; upstream lag is receive time minus producer timestamp<br>"
+                + String.join("<br>", metrics.getTraceLatencies()) + "</html>");
+    }
+
+    // Per-upstream throughput and lag, shown only when the pane merges more than one server
+    private String formatUpstreams() {
+        List<WebSocketManager.UpstreamStatus> statuses = upstreamStatuses.get();
+        if (statuses.size() < 2) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(" | up");
+        for (WebSocketManager.UpstreamStatus status : statuses) {
+            String host = status.url().replaceFirst("^wss?://", "");
+            text.append(' ').append(status.connected() ? "●" : "○").append(host)
+                    .append(String.format(" %.0f/s", status.ratePerSecond()))
+                    .append(status.lagMillis() < 0 ? "" : String.format(" lag %.0fms", status.lagMillis()));
+            if (status.queued() > 0) {
+                text.append(" q").append(status.queued());
+            }
+        }
+        return text.toString();
+    }
+
+    private static String formatLatency(PipelineMetrics.Histogram histogram) {
+        if (histogram.count() == 0) {
+            return "-";
+        }
+        return formatMicros(histogram.percentileMicros(50)) + "/" + formatMicros(histogram.percentileMicros(99));
+    }
+
+    private static String maxSuffix(PipelineMetrics.Histogram histogram) {
+        return histogram.count() == 0 ? "" : " max " + formatMicros(histogram.maxMicros());
+    }
+
+    private static String formatMicros(double micros) {
+        return micros >= 1000 ? String.format("%.1fms", micros / 1000) : String.format("%.0fµs", micros);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1L << 20) {
+            return String.format("%.1f MB", bytes / (double) (1L << 20));
+        }
+        return String.format("%.1f KB", bytes / 1024.0);
+    }
+
+    // events are the ones shown by html; they are passed along only to stamp the render step of their latency trace
+    public void setLogContent(String html, List<LogProcessor.LogEvent> events) {
         SwingUtilities.invokeLater(() -> {
             JScrollPane scrollPane = (JScrollPane) logArea.getParent().getParent();
             JScrollBar verticalScrollBar = scrollPane.getVerticalScrollBar();
             boolean isAtBottom = verticalScrollBar.getValue() + verticalScrollBar.getVisibleAmount() >= verticalScrollBar.getMaximum();
-            System.out.println("[LogPaneUI] Setting log content: isAtBottom=" + isAtBottom + ", scrollValue=" + verticalScrollBar.getValue() + ", visibleAmount=" + verticalScrollBar.getVisibleAmount() + ", max=" + verticalScrollBar.getMaximum());
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogPaneUI] Setting log content: isAtBottom=" + isAtBottom + ", scrollValue=" + verticalScrollBar.getValue() + ", visibleAmount=" + verticalScrollBar.getVisibleAmount() + ", max=" + verticalScrollBar.getMaximum());
+            }
+            long start = metrics.start();
             logArea.setText(html);
             logArea.revalidate();
             logArea.repaint();
+            metrics.stop(metrics.document, start);
+            metrics.traceRendered(events);
             if (isAtBottom) {
                 logArea.setCaretPosition(logArea.getDocument().getLength());
-                System.out.println("[LogPaneUI] Scrolled to bottom: caretPosition=" + logArea.getCaretPosition());
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("[LogPaneUI] Scrolled to bottom: caretPosition=" + logArea.getCaretPosition());
+                }
             } else {
-                System.out.println("[LogPaneUI] Scroll position maintained: caretPosition=" + logArea.getCaretPosition());
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("[LogPaneUI] Scroll position maintained: caretPosition=" + logArea.getCaretPosition());
+                }
+            }
+        });
+    }
+
+    // Appends pre-rendered event blocks to the existing document and drops the oldest trimCount blocks,
+    // so steady-state updates cost O(new events) instead of a full setText re-parse
+    public void appendLogContent(String fragments, int trimCount, List<LogProcessor.LogEvent> appended) {
+        SwingUtilities.invokeLater(() -> {
+            JScrollPane scrollPane = (JScrollPane) logArea.getParent().getParent();
+            JScrollBar verticalScrollBar = scrollPane.getVerticalScrollBar();
+            boolean isAtBottom = verticalScrollBar.getValue() + verticalScrollBar.getVisibleAmount() >= verticalScrollBar.getMaximum();
+            HTMLDocument doc = (HTMLDocument) logArea.getDocument();
+            Element body = findBody(doc);
+            if (body == null) {
+                LOGGER.warning("[LogPaneUI] Document has no body element, skipping incremental append");
+                return;
+            }
+            long start = metrics.start();
+            int removed = 0;
+            int index = 0;
+            while (removed < trimCount && index < body.getElementCount()) {
+                Element child = body.getElement(index);
+                Object id = child.getAttributes().getAttribute(HTML.Attribute.ID);
+                if (id instanceof String && ((String) id).startsWith("ev-")) {
+                    doc.removeElement(child);
+                    removed++;
+                } else {
+                    index++; // Skip the implied paragraph Swing keeps at the start of the body
+                }
+            }
+            if (!fragments.isEmpty()) {
+                try {
+                    doc.insertBeforeEnd(body, fragments);
+                } catch (BadLocationException | IOException e) {
+                    LOGGER.warning("[LogPaneUI] Failed to append log content: error=" + e.getMessage());
+                }
+            }
+            metrics.stop(metrics.document, start);
+            metrics.traceRendered(appended);
+            if (isAtBottom) {
+                logArea.setCaretPosition(doc.getLength());
+            }
+        });
+    }
+
+    // The histogram reads the store's aggregates when it paints, so a repaint is all an update needs
+    public void repaintHistogram() {
+        rateHistogram.repaint();
+    }
+
+    // A short-lived message in the histogram strip, e.g. why a click could not jump
+    public void showHistogramStatus(String message) {
+        rateHistogram.showStatus(message);
+    }
+
+    // Scrolls the rendered block to the top of the view; the view stops following new events until scrolled back down.
+    // Runs after queued document updates; onMissing runs instead when the entry is not in the document
+    public void scrollToEntry(String elementId, Runnable onMissing) {
+        SwingUtilities.invokeLater(() -> {
+            Element element = ((HTMLDocument) logArea.getDocument()).getElement(elementId);
+            if (element == null) {
+                onMissing.run();
+                return;
+            }
+            try {
+                Rectangle start = logArea.modelToView2D(element.getStartOffset()).getBounds();
+                Rectangle visible = logArea.getVisibleRect();
+                logArea.scrollRectToVisible(new Rectangle(0, start.y, 1, visible.height));
+            } catch (BadLocationException e) {
+                LOGGER.warning("[LogPaneUI] Failed to scroll to log entry: id=" + elementId + ", error=" + e.getMessage());
             }
         });
     }
 
+    // Re-renders a single event block in place, e.g. after its stack trace or data was toggled
+    public void replaceLogEntry(String elementId, String fragment) {
+        SwingUtilities.invokeLater(() -> {
+            HTMLDocument doc = (HTMLDocument) logArea.getDocument();
+            Element element = doc.getElement(elementId);
+            if (element == null) {
+                return;
+            }
+            long start = metrics.start();
+            try {
+                doc.setOuterHTML(element, fragment);
+            } catch (BadLocationException | IOException e) {
+                LOGGER.warning("[LogPaneUI] Failed to replace log entry: id=" + elementId + ", error=" + e.getMessage());
+            }
+            metrics.stop(metrics.document, start);
+        });
+    }
+
+    private Element findBody(HTMLDocument doc) {
+        Element root = doc.getDefaultRootElement();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            Element child = root.getElement(i);
+            if (HTML.Tag.BODY.toString().equals(child.getName())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
     public void updateConnectionStatus(boolean isConnected) {
         SwingUtilities.invokeLater(() -> {
             connectButton.setBackground(isConnected ? new Color(0, 128, 0) : new Color(128, 128, 128));
@@ -407,6 +662,20 @@ public class LogPaneUI {
         SwingUtilities.invokeLater(() -> toggleDataButton.setBackground(expanded ? new Color(76, 175, 80) : new Color(42, 42, 42)));
     }
 
+    public void updateRecordingState(boolean recording) {
+        SwingUtilities.invokeLater(() -> {
+            recordToggle.setSelected(recording);
+            recordToggle.setText(recording ? "■ Stop" : "● Rec");
+        });
+    }
+
+    public void updateReplayState(boolean replaying) {
+        SwingUtilities.invokeLater(() -> {
+            replayButton.setText(replaying ? "■ Stop Replay" : "▶ Replay");
+            replayButton.setToolTipText(replaying ? "Stop the Running Replay" : "Clear Logs and Replay a Session Capture");
+        });
+    }
+
     public void clearSources() {
         SwingUtilities.invokeLater(() -> {
             sourceModel.clear();
@@ -501,7 +770,9 @@ public class LogPaneUI {
             clearDeviceIdButton.setToolTipText(deviceIdFilter.isEmpty() ? "Set Device ID Filter" : "Clear Device ID Filter");
             clearDeviceIdButton.setBackground(deviceIdFilter.isEmpty() ? new Color(42, 42, 42) : new Color(76, 175, 80));
             clearDeviceIdButton.repaint();
-            System.out.println("[LogPaneUI] Updated deviceId button: filter=" + (deviceIdFilter.isEmpty() ? "none" : deviceIdFilter));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogPaneUI] Updated deviceId button: filter=" + (deviceIdFilter.isEmpty() ? "none" : deviceIdFilter));
+            }
         });
     }
 
@@ -510,7 +781,9 @@ public class LogPaneUI {
             clearCorrelationIdButton.setToolTipText(correlationIdFilter.isEmpty() ? "Set Correlation ID Filter" : "Clear Correlation ID Filter");
             clearCorrelationIdButton.setBackground(correlationIdFilter.isEmpty() ? new Color(42, 42, 42) : new Color(76, 175, 80));
             clearCorrelationIdButton.repaint();
-            System.out.println("[LogPaneUI] Updated correlationId button: filter=" + (correlationIdFilter.isEmpty() ? "none" : correlationIdFilter));
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogPaneUI] Updated correlationId button: filter=" + (correlationIdFilter.isEmpty() ? "none" : correlationIdFilter));
+            }
         });
     }
 
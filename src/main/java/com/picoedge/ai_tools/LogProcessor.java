@@ -1,10 +1,17 @@
 package com.picoedge.ai_tools;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class LogProcessor {
+    private static final Logger LOGGER = Logger.getLogger(LogProcessor.class.getName());
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final List<LogProcessor.LogEvent> allLogs = Collections.synchronizedList(new ArrayList<>());
     private final Map<String, Set<String>> processedEventIdsBySubId = Collections.synchronizedMap(new HashMap<>());
@@ -14,11 +21,19 @@ public class LogProcessor {
     private boolean defaultStackExpanded = false;
     private boolean defaultDataExpanded = false;
     private String currentSubId = null;
+    private long nextStoreIndex = 0; // Store index assigned to the next appended event
+    private long firstStoreIndex = 0; // Store index of allLogs.get(0), advanced on eviction
+    private volatile long expandStateVersion = 0; // Bumped on global expand/collapse so views can re-render
+    private long approxStoreBytes = 0; // Sum of LogEvent.approxBytes over allLogs
+    private final CorrelationIndex correlationIndex = new CorrelationIndex(); // Guarded by the allLogs lock
+    private final RateIndex rateIndex = new RateIndex(); // Guarded by the allLogs lock
     private final Runnable updateUICallback; // Callback to trigger UI updates
+    private final PipelineMetrics metrics;
 
     // Constructor with UI update callback
-    public LogProcessor(Runnable updateUICallback) {
+    public LogProcessor(Runnable updateUICallback, PipelineMetrics metrics) {
         this.updateUICallback = updateUICallback;
+        this.metrics = metrics;
     }
 
     public static class LogEvent {
@@ -37,6 +52,18 @@ public class LogProcessor {
         Object data;
         String deviceId;
         Boolean includeStacktrace;
+        long storeIndex; // Monotonic insertion position, used by views to append and trim incrementally
+        int approxBytes; // Rough retained size, taken from the UTF-16 size of the source message
+        boolean producerTimestamp; // Whether timestamp came from the producer rather than the receive time
+        // Monotonic trace stamps (System.nanoTime), 0 unless pipeline timing was on when the event arrived
+        long receivedNanos;
+        long parsedNanos;
+        long storedNanos;
+        long renderedNanos;
+        // Render cache owned by LogDisplay (EDT): header escaped/colored once, full fragment keyed on expand state
+        String renderedHeader;
+        String renderedHtml;
+        int renderedKey = -1;
 
         LogEvent(String id, int level, String category, String description, long timestamp, String source,
                  String correlationId, List<Map<String, Object>> stacktrace, String title, Integer code,
@@ -73,6 +100,7 @@ public class LogProcessor {
         public Object getData() { return data; }
         public String getDeviceId() { return deviceId; }
         public Boolean getIncludeStacktrace() { return includeStacktrace; }
+        public long getStoreIndex() { return storeIndex; }
     }
 
     public enum LogLevel {
@@ -100,70 +128,306 @@ public class LogProcessor {
     }
 
     public void processMessage(String message, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
-        System.out.println("[LogProcessor] Processing message: " + message);
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> json = objectMapper.readValue(message, Map.class);
-            String id = (String) json.get("id");
-            if (id == null) {
-                System.out.println("[LogProcessor] Skipping event with null ID: message=" + message);
-                return;
+        processMessage(message, System.nanoTime(), onNewCategory, onNewSource);
+    }
+
+    // Fields of one decoded frame. Immutable, so the log hub can parse a frame once and hand the same instance to
+    // every project's LogProcessor; each store wraps it in its own LogEvent, which carries per-view state.
+    // parseNanos/parsedNanos are 0 when the frame was parsed without timing.
+    public record ParsedEvent(String message, String id, int level, String category, String description, long timestamp,
+                              boolean producerTimestamp, String source, String correlationId, List<Map<String, Object>> stacktrace,
+                              String title, Integer code, Object data, String deviceId, Boolean includeStacktrace,
+                              long parseNanos, long parsedNanos) {
+    }
+
+    // Returns null for frames without an id; throws on malformed JSON or mistyped fields
+    public static ParsedEvent parse(ObjectMapper objectMapper, String message, boolean timed) throws Exception {
+        return parse(objectMapper, message, timed, null);
+    }
+
+    // fallbackId stands in for a missing id, for sources such as tailed files whose lines may not carry one
+    public static ParsedEvent parse(ObjectMapper objectMapper, String message, boolean timed, String fallbackId) throws Exception {
+        long parseStart = timed ? System.nanoTime() : 0;
+        @SuppressWarnings("unchecked")
+        Map<String, Object> json = objectMapper.readValue(message, Map.class);
+        return fromJson(message, json, parseStart, timed, fallbackId);
+    }
+
+    // A frame carrying several events: a JSON array of event objects, or newline-delimited JSON (one object per line).
+    // A single object followed only by whitespace is not a batch, so ordinary frames skip the batch decoder.
+    public static boolean isBatch(String frame) {
+        int start = skipWhitespace(frame, 0);
+        if (start < frame.length() && frame.charAt(start) == '[') {
+            return true;
+        }
+        int newline = frame.indexOf('\n', start);
+        if (newline < 0) {
+            return false;
+        }
+        for (int i = newline + 1; i < frame.length(); i++) {
+            if (!Character.isWhitespace(frame.charAt(i))) {
+                return true;
             }
-            synchronized (processedEventIdsBySubId) {
-                Set<String> processedEventIds = processedEventIdsBySubId.computeIfAbsent(currentSubId, k -> new HashSet<>());
-                if (processedEventIds.contains(id)) {
-                    System.out.println("[LogProcessor] Skipping duplicate event: id=" + id + ", subId=" + currentSubId);
-                    return;
+        }
+        return false;
+    }
+
+    // Decodes every event of a batch frame in one streaming pass over the frame, appending them to out in frame order;
+    // each event's message is its own slice of the frame. Elements without an id are skipped. Returns the number of
+    // elements that were not event objects, had mistyped fields or, in NDJSON, were malformed lines, which are skipped
+    // by resuming at the next line. Throws on malformed JSON in an array, in which case out holds the events before it.
+    public static int parseBatch(ObjectMapper objectMapper, String frame, boolean timed, List<ParsedEvent> out) throws IOException {
+        boolean array = skipWhitespace(frame, 0) < frame.length() && frame.charAt(skipWhitespace(frame, 0)) == '[';
+        int failures = 0;
+        int from = 0;
+        char[] chars = null; // Only needed to resume after a malformed line
+        while (true) {
+            int lastEnd = from;
+            try (JsonParser parser = chars == null ? objectMapper.getFactory().createParser(frame)
+                    : objectMapper.getFactory().createParser(chars, from, chars.length - from)) {
+                JsonToken token = parser.nextToken();
+                if (array) {
+                    token = parser.nextToken();
                 }
-                processedEventIds.add(id);
-                if (processedEventIds.size() > maxLogs) {
-                    Iterator<String> iterator = processedEventIds.iterator();
-                    if (iterator.hasNext()) {
-                        iterator.next();
-                        iterator.remove();
+                while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        failures++;
+                    } else {
+                        long parseStart = timed ? System.nanoTime() : 0;
+                        int start = from + (int) parser.getTokenLocation().getCharOffset();
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> json = objectMapper.readValue(parser, Map.class);
+                        int end = from + (int) parser.getCurrentLocation().getCharOffset();
+                        String message = start == 0 && end == frame.length() ? frame : frame.substring(start, end);
+                        try {
+                            ParsedEvent event = fromJson(message, json, parseStart, timed, null);
+                            if (event != null) {
+                                out.add(event);
+                            }
+                        } catch (ClassCastException e) {
+                            failures++;
+                        }
                     }
+                    lastEnd = from + (int) parser.getCurrentLocation().getCharOffset();
+                    token = parser.nextToken();
+                }
+                return failures;
+            } catch (JsonProcessingException e) {
+                if (array) {
+                    throw e;
                 }
             }
-            Integer level = (Integer) json.getOrDefault("level", LogLevel.Info.getValue());
-            String category = (String) json.getOrDefault("category", "general");
-            String description = (String) json.getOrDefault("description", "");
-            String source = (String) json.getOrDefault("source", "unknown");
-            String correlationId = (String) json.get("correlationId");
-            Long timestamp = json.get("timestamp") instanceof Number ? ((Number) json.get("timestamp")).longValue() : System.currentTimeMillis();
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> stacktrace = json.get("stacktrace") instanceof List ? (List<Map<String, Object>>) json.get("stacktrace") : null;
-            String title = (String) json.get("title");
-            Integer code = json.get("code") instanceof Number ? ((Number) json.get("code")).intValue() : null;
-            Object data = json.get("data");
-            String eventDeviceId = (String) json.get("deviceId");
-            Boolean includeStacktrace = json.get("includeStacktrace") instanceof Boolean ? (Boolean) json.get("includeStacktrace") : null;
-            System.out.println("[LogProcessor] Parsed event: id=" + id + ", category=" + category + ", level=" + level + ", description=" + description + ", source=" + source + ", correlationId=" + correlationId + ", deviceId=" + eventDeviceId);
-            LogEvent event = new LogEvent(id, level, category, description, timestamp, source, correlationId, stacktrace,
-                    title, code, data, eventDeviceId, includeStacktrace);
-            synchronized (allLogs) {
-                event.stacktraceExpanded = defaultStackExpanded;
-                event.dataExpanded = data != null ? defaultDataExpanded : false;
-                allLogs.add(event);
-                if (allLogs.size() > maxLogs) allLogs.remove(0);
+            // A malformed NDJSON line: skip from where the bad element starts to the end of its line
+            failures++;
+            int newline = frame.indexOf('\n', skipWhitespace(frame, lastEnd));
+            if (newline < 0) {
+                return failures;
             }
-            synchronized (availableCategories) {
-                if (!availableCategories.contains(category)) {
-                    availableCategories.add(category);
-                    availableCategories.sort(String::compareTo);
-                    System.out.println("[LogProcessor] Added category: " + category);
-                    onNewCategory.accept(category);
-                }
+            from = newline + 1;
+            chars = chars != null ? chars : frame.toCharArray();
+        }
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        while (from < text.length() && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static ParsedEvent fromJson(String message, Map<String, Object> json, long parseStart, boolean timed, String fallbackId) {
+        String id = json.get("id") instanceof String ? (String) json.get("id") : fallbackId;
+        if (id == null) {
+            return null;
+        }
+        Integer level = (Integer) json.getOrDefault("level", LogLevel.Info.getValue());
+        String category = (String) json.getOrDefault("category", "general");
+        String description = (String) json.getOrDefault("description", "");
+        String source = (String) json.getOrDefault("source", "unknown");
+        String correlationId = (String) json.get("correlationId");
+        boolean producerTimestamp = json.get("timestamp") instanceof Number;
+        long timestamp = producerTimestamp ? ((Number) json.get("timestamp")).longValue() : System.currentTimeMillis();
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> stacktrace = json.get("stacktrace") instanceof List ? (List<Map<String, Object>>) json.get("stacktrace") : null;
+        String title = (String) json.get("title");
+        Integer code = json.get("code") instanceof Number ? ((Number) json.get("code")).intValue() : null;
+        Object data = json.get("data");
+        String eventDeviceId = (String) json.get("deviceId");
+        Boolean includeStacktrace = json.get("includeStacktrace") instanceof Boolean ? (Boolean) json.get("includeStacktrace") : null;
+        long parsedNanos = timed ? System.nanoTime() : 0;
+        return new ParsedEvent(message, id, level, category, description, timestamp, producerTimestamp, source, correlationId,
+                stacktrace, title, code, data, eventDeviceId, includeStacktrace, parsedNanos - parseStart, parsedNanos);
+    }
+
+    // receivedNanos is the System.nanoTime() at which the frame came off the socket
+    public void processMessage(String message, long receivedNanos, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        if (LOGGER.isLoggable(Level.FINEST)) {
+            LOGGER.finest("[LogProcessor] Processing message: " + message);
+        }
+        if (isBatch(message)) {
+            processBatch(message, receivedNanos, onNewCategory, onNewSource);
+            return;
+        }
+        metrics.messagesReceived.increment();
+        ParsedEvent parsed;
+        try {
+            parsed = parse(objectMapper, message, metrics.isTimingActive());
+        } catch (Exception e) {
+            metrics.parseFailures.increment();
+            LOGGER.log(Level.WARNING, "[LogProcessor] Failed to process message: length=" + message.length() + ", error=" + e.getMessage(), e);
+            return;
+        }
+        if (parsed == null) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogProcessor] Skipping event with null ID: length=" + message.length());
+            }
+            return;
+        }
+        synchronized (processedEventIdsBySubId) {
+            if (!markProcessed(parsed.id())) {
+                return;
             }
-            synchronized (availableSources) {
-                if (!availableSources.contains(source)) {
-                    availableSources.add(source);
-                    System.out.println("[LogProcessor] Added source: " + source);
-                    onNewSource.accept(source);
+        }
+        store(parsed, receivedNanos, onNewCategory, onNewSource);
+    }
+
+    // A batch frame is decoded in one pass, deduplicated under one lock and appended to the store under one lock;
+    // messagesReceived counts its events, so rates stay comparable with single-event frames
+    private void processBatch(String frame, long receivedNanos, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        metrics.batchFrames.increment();
+        List<ParsedEvent> parsed = new ArrayList<>();
+        try {
+            int failures = parseBatch(objectMapper, frame, metrics.isTimingActive(), parsed);
+            metrics.parseFailures.add(failures);
+        } catch (IOException e) {
+            metrics.parseFailures.increment();
+            LOGGER.log(Level.WARNING, "[LogProcessor] Failed to decode batch, keeping the events before the error: length=" + frame.length()
+                    + ", decoded=" + parsed.size() + ", error=" + e.getMessage(), e);
+        }
+        metrics.messagesReceived.add(parsed.size());
+        List<ParsedEvent> fresh = new ArrayList<>(parsed.size());
+        synchronized (processedEventIdsBySubId) {
+            for (ParsedEvent event : parsed) {
+                if (markProcessed(event.id())) {
+                    fresh.add(event);
                 }
             }
-            System.out.println("[LogProcessor] Successfully processed event: id=" + id);
-        } catch (Exception e) {
-            System.out.println("[LogProcessor] Failed to process message: " + message + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+        }
+        storeAll(fresh, receivedNanos, onNewCategory, onNewSource);
+    }
+
+    // Caller holds the processedEventIdsBySubId lock; false when the current subscription already saw the id
+    private boolean markProcessed(String id) {
+        Set<String> processedEventIds = processedEventIdsBySubId.computeIfAbsent(currentSubId, k -> new HashSet<>());
+        if (!processedEventIds.add(id)) {
+            metrics.dedupHits.increment();
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("[LogProcessor] Skipping duplicate event: id=" + id + ", subId=" + currentSubId);
+            }
+            return false;
+        }
+        if (processedEventIds.size() > maxLogs) {
+            Iterator<String> iterator = processedEventIds.iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return true;
+    }
+
+    // Stores events the log hub already parsed and deduplicated for all projects
+    public void processParsed(List<ParsedEvent> parsed, long receivedNanos, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        metrics.messagesReceived.add(parsed.size());
+        if (parsed.size() == 1) {
+            store(parsed.get(0), receivedNanos, onNewCategory, onNewSource);
+        } else {
+            metrics.batchFrames.increment();
+            storeAll(parsed, receivedNanos, onNewCategory, onNewSource);
+        }
+    }
+
+    private void store(ParsedEvent parsed, long receivedNanos, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        LogEvent event = toLogEvent(parsed, receivedNanos);
+        synchronized (allLogs) {
+            append(event);
+        }
+        afterStore(event, onNewCategory, onNewSource);
+    }
+
+    private void storeAll(List<ParsedEvent> parsed, long receivedNanos, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        List<LogEvent> events = new ArrayList<>(parsed.size());
+        for (ParsedEvent event : parsed) {
+            events.add(toLogEvent(event, receivedNanos));
+        }
+        synchronized (allLogs) {
+            for (LogEvent event : events) {
+                append(event);
+            }
+        }
+        for (LogEvent event : events) {
+            afterStore(event, onNewCategory, onNewSource);
+        }
+    }
+
+    private LogEvent toLogEvent(ParsedEvent parsed, long receivedNanos) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogProcessor] Parsed event: id=" + parsed.id() + ", category=" + parsed.category() + ", level=" + parsed.level() + ", description=" + parsed.description() + ", source=" + parsed.source() + ", correlationId=" + parsed.correlationId() + ", deviceId=" + parsed.deviceId());
+        }
+        LogEvent event = new LogEvent(parsed.id(), parsed.level(), parsed.category(), parsed.description(), parsed.timestamp(),
+                parsed.source(), parsed.correlationId(), parsed.stacktrace(), parsed.title(), parsed.code(), parsed.data(),
+                parsed.deviceId(), parsed.includeStacktrace());
+        event.approxBytes = 2 * parsed.message().length();
+        event.producerTimestamp = parsed.producerTimestamp();
+        boolean timed = parsed.parsedNanos() != 0 && metrics.isTimingActive();
+        if (timed) {
+            metrics.parse.record(parsed.parseNanos());
+            event.receivedNanos = receivedNanos;
+            event.parsedNanos = parsed.parsedNanos();
+        }
+        return event;
+    }
+
+    // Caller holds the allLogs lock
+    private void append(LogEvent event) {
+        event.stacktraceExpanded = defaultStackExpanded;
+        event.dataExpanded = event.data != null ? defaultDataExpanded : false;
+        event.storeIndex = nextStoreIndex++;
+        allLogs.add(event);
+        correlationIndex.add(event);
+        rateIndex.add(event);
+        approxStoreBytes += event.approxBytes;
+        if (allLogs.size() > maxLogs) {
+            evictOldest();
+        }
+    }
+
+    private void afterStore(LogEvent event, Consumer<String> onNewCategory, Consumer<String> onNewSource) {
+        metrics.eventsStored.increment();
+        if (event.parsedNanos != 0) {
+            event.storedNanos = System.nanoTime();
+            metrics.traceStored(event, System.currentTimeMillis());
+        }
+        String category = event.category;
+        String source = event.source;
+        synchronized (availableCategories) {
+            if (!availableCategories.contains(category)) {
+                availableCategories.add(category);
+                availableCategories.sort(String::compareTo);
+                LOGGER.fine(() -> "[LogProcessor] Added category: " + category);
+                onNewCategory.accept(category);
+            }
+        }
+        synchronized (availableSources) {
+            if (!availableSources.contains(source)) {
+                availableSources.add(source);
+                LOGGER.fine(() -> "[LogProcessor] Added source: " + source);
+                onNewSource.accept(source);
+            }
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogProcessor] Successfully processed event: id=" + event.id);
         }
     }
 
@@ -171,21 +435,21 @@ public class LogProcessor {
         synchronized (processedEventIdsBySubId) {
             this.currentSubId = subId;
             processedEventIdsBySubId.computeIfAbsent(subId, k -> new HashSet<>());
-            System.out.println("[LogProcessor] Set current subscription ID: " + subId);
+            LOGGER.fine(() -> "[LogProcessor] Set current subscription ID: " + subId);
         }
     }
 
     public void clearProcessedEventIds(String subId) {
         synchronized (processedEventIdsBySubId) {
             processedEventIdsBySubId.remove(subId);
-            System.out.println("[LogProcessor] Cleared processed event IDs for subscription: " + subId);
+            LOGGER.fine(() -> "[LogProcessor] Cleared processed event IDs for subscription: " + subId);
         }
     }
 
     public void clearProcessedEventIds() {
         synchronized (processedEventIdsBySubId) {
             processedEventIdsBySubId.clear();
-            System.out.println("[LogProcessor] Cleared all processed event IDs for new WebSocket connection");
+            LOGGER.fine(() -> "[LogProcessor] Cleared all processed event IDs for new WebSocket connection");
         }
     }
 
@@ -193,11 +457,21 @@ public class LogProcessor {
         this.maxLogs = maxLogs;
         synchronized (allLogs) {
             while (allLogs.size() > maxLogs) {
-                allLogs.remove(0);
+                evictOldest();
             }
         }
     }
 
+    // Caller holds the allLogs lock
+    private void evictOldest() {
+        LogEvent evicted = allLogs.remove(0);
+        correlationIndex.remove(evicted);
+        rateIndex.remove(evicted);
+        approxStoreBytes -= evicted.approxBytes;
+        firstStoreIndex++;
+        metrics.evictions.increment();
+    }
+
     public int getMaxLogs() {
         return maxLogs;
     }
@@ -210,9 +484,87 @@ public class LogProcessor {
         }
     }
 
+    // The stored events of one correlation ID ordered by timestamp, in time proportional to their number
+    public List<LogEvent> getTrace(String correlationId) {
+        List<LogEvent> trace;
+        synchronized (allLogs) {
+            trace = correlationIndex.get(correlationId);
+        }
+        trace.sort(Comparator.comparingLong(LogEvent::getTimestamp));
+        return trace;
+    }
+
+    // Per-level event counts of the bucketCount buckets ending with the newest stored event, from the aggregates alone;
+    // sources null counts every source
+    public RateHistogram getRateHistogram(int bucketCount, Set<String> sources) {
+        synchronized (allLogs) {
+            long newest = rateIndex.newestBucket();
+            if (newest == Long.MIN_VALUE) {
+                return new RateHistogram(0, RateIndex.BUCKET_MILLIS, new int[0][]);
+            }
+            long first = newest - bucketCount + 1;
+            return new RateHistogram(first * RateIndex.BUCKET_MILLIS, RateIndex.BUCKET_MILLIS, rateIndex.counts(first, bucketCount, sources));
+        }
+    }
+
+    // The stored events whose timestamp falls in the same bucket as millis, ordered by timestamp
+    public List<LogEvent> getBucketEvents(long millis) {
+        List<LogEvent> events;
+        synchronized (allLogs) {
+            events = rateIndex.events(Math.floorDiv(millis, RateIndex.BUCKET_MILLIS));
+        }
+        events.sort(Comparator.comparingLong(LogEvent::getTimestamp));
+        return events;
+    }
+
+    // counts[i][slot] is the number of events of level 1 << slot in the bucket starting at firstBucketMillis + i * bucketMillis
+    public record RateHistogram(long firstBucketMillis, long bucketMillis, int[][] counts) {
+    }
+
+    // Returns events appended at or after the given store index, in insertion order
+    public List<LogEvent> getLogsSince(long storeIndex) {
+        synchronized (allLogs) {
+            int offset = (int) Math.max(0, storeIndex - firstStoreIndex);
+            if (offset >= allLogs.size()) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(allLogs.subList(offset, allLogs.size()));
+        }
+    }
+
+    public long getFirstStoreIndex() {
+        synchronized (allLogs) {
+            return firstStoreIndex;
+        }
+    }
+
+    public long getNextStoreIndex() {
+        synchronized (allLogs) {
+            return nextStoreIndex;
+        }
+    }
+
+    public int getStoreSize() {
+        return allLogs.size();
+    }
+
+    public long getApproxStoreBytes() {
+        synchronized (allLogs) {
+            return approxStoreBytes;
+        }
+    }
+
+    public long getExpandStateVersion() {
+        return expandStateVersion;
+    }
+
     public void clearLogs() {
         synchronized (allLogs) {
             allLogs.clear();
+            correlationIndex.clear();
+            rateIndex.clear();
+            firstStoreIndex = nextStoreIndex;
+            approxStoreBytes = 0;
         }
         synchronized (processedEventIdsBySubId) {
             processedEventIdsBySubId.clear();
@@ -227,7 +579,7 @@ public class LogProcessor {
             for (LogEvent event : allLogs) {
                 if (event.id.equals(eventId) && event.stacktrace != null && !event.stacktrace.isEmpty()) {
                     event.stacktraceExpanded = !event.stacktraceExpanded;
-                    System.out.println("[LogProcessor] Toggled stack trace for event: id=" + eventId + ", expanded=" + event.stacktraceExpanded);
+                    LOGGER.fine(() -> "[LogProcessor] Toggled stack trace for event: id=" + eventId + ", expanded=" + event.stacktraceExpanded);
                     break;
                 }
             }
@@ -242,7 +594,7 @@ public class LogProcessor {
             for (LogEvent event : allLogs) {
                 if (event.id.equals(eventId) && event.data != null) {
                     event.dataExpanded = !event.dataExpanded;
-                    System.out.println("[LogProcessor] Toggled data for event: id=" + eventId + ", expanded=" + event.dataExpanded);
+                    LOGGER.fine(() -> "[LogProcessor] Toggled data for event: id=" + eventId + ", expanded=" + event.dataExpanded);
                     break;
                 }
             }
@@ -254,6 +606,7 @@ public class LogProcessor {
 
     public void setDefaultStackExpanded(boolean expanded) {
         this.defaultStackExpanded = expanded;
+        expandStateVersion++;
         synchronized (allLogs) {
             for (LogEvent event : allLogs) {
                 if (event.stacktrace != null && !event.stacktrace.isEmpty()) {
@@ -261,7 +614,7 @@ public class LogProcessor {
                 }
             }
         }
-        System.out.println("[LogProcessor] Set default stack expanded: " + expanded);
+        LOGGER.fine(() -> "[LogProcessor] Set default stack expanded: " + expanded);
         if (updateUICallback != null) {
             updateUICallback.run(); // Trigger UI update after state change
         }
@@ -269,6 +622,7 @@ public class LogProcessor {
 
     public void setDefaultDataExpanded(boolean expanded) {
         this.defaultDataExpanded = expanded;
+        expandStateVersion++;
         synchronized (allLogs) {
             for (LogEvent event : allLogs) {
                 if (event.data != null) {
@@ -276,7 +630,7 @@ public class LogProcessor {
                 }
             }
         }
-        System.out.println("[LogProcessor] Set default data expanded: " + expanded);
+        LOGGER.fine(() -> "[LogProcessor] Set default data expanded: " + expanded);
         if (updateUICallback != null) {
             updateUICallback.run(); // Trigger UI update after state change
         }
@@ -0,0 +1,228 @@
+package com.picoedge.ai_tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps the log area in step with the store: filters, renders and hands the HTML to LogPaneUI. LogPane calls refresh()
+// from its RefreshScheduler and AllocationBudgetCheck calls the same method, so the budget measures the real refresh
+// path. Needs no Project. Render state is EDT only; filteredLogs and filterLogs may run on any thread.
+public class LogViewRefresher {
+    private static final Logger LOGGER = Logger.getLogger(LogViewRefresher.class.getName());
+    private final LogProcessor logProcessor;
+    private final LogFilter logFilter;
+    private final LogDisplay logDisplay;
+    private final LogPaneUI ui;
+    private final PipelineMetrics metrics;
+    // Incremental render state (EDT only): what the log area shows and under which filter/expand state
+    private final ArrayDeque<LogProcessor.LogEvent> renderedEvents = new ArrayDeque<>();
+    private final Set<String> pendingEntryRefresh = new HashSet<>();
+    private ViewState renderedViewState = null;
+    private long renderedExpandVersion = -1;
+    private long renderedFirstStoreIndex = 0;
+    private volatile long nextUnrenderedIndex = 0; // Also read off-EDT for the queue depth gauge
+    private boolean renderedInStoreOrder = true;
+
+    // Snapshot of every UI filter input; any change forces a full re-render
+    public record ViewState(int levels, Set<String> sources, boolean allSources, String category, String searchQuery,
+                            String deviceId, String correlationId, String timeRange) {
+    }
+
+    public LogViewRefresher(LogProcessor logProcessor, LogFilter logFilter, LogDisplay logDisplay, LogPaneUI ui, PipelineMetrics metrics) {
+        this.logProcessor = logProcessor;
+        this.logFilter = logFilter;
+        this.logDisplay = logDisplay;
+        this.ui = ui;
+        this.metrics = metrics;
+    }
+
+    // EDT only; reads the UI's filter inputs
+    public ViewState currentViewState() {
+        return new ViewState(
+                ui.getSelectedLevels(),
+                new HashSet<>(ui.getSelectedSources()),
+                ui.isAllSourcesSelected(),
+                ui.getCategoryFilter(),
+                ui.getSearchQuery(),
+                logFilter.getDeviceIdFilter(),
+                logFilter.getCorrelationIdFilter(),
+                ui.getTimeRange());
+    }
+
+    // Re-renders the entry of eventId in place on the next refresh, e.g. after its stack trace was toggled
+    public void refreshEntry(String eventId) {
+        pendingEntryRefresh.add(eventId);
+    }
+
+    public long getNextUnrenderedIndex() {
+        return nextUnrenderedIndex;
+    }
+
+    // Re-renders everything only when the filter or global expand state changed; otherwise appends the
+    // newly arrived events, trims evicted ones and re-renders individually toggled entries
+    public void refresh() {
+        ViewState viewState = currentViewState();
+        long[] timeRange = convertTimeRange(viewState.timeRange());
+        long expandVersion = logProcessor.getExpandStateVersion();
+        long firstStoreIndex = logProcessor.getFirstStoreIndex();
+        if (!viewState.equals(renderedViewState) || expandVersion != renderedExpandVersion
+                || (!renderedInStoreOrder && firstStoreIndex != renderedFirstStoreIndex)) {
+            renderFull(viewState, timeRange, expandVersion);
+            return;
+        }
+        List<LogProcessor.LogEvent> arrived = logProcessor.getLogsSince(nextUnrenderedIndex);
+        List<LogProcessor.LogEvent> fresh = filterLogs(arrived, viewState, timeRange);
+        if (!fresh.isEmpty() && !renderedEvents.isEmpty() && fresh.get(0).getTimestamp() < renderedEvents.peekLast().getTimestamp()) {
+            // Views are ordered by timestamp, so an out-of-order arrival can only be placed by a full render
+            renderFull(viewState, timeRange, expandVersion);
+            return;
+        }
+        int trimCount = 0;
+        while (!renderedEvents.isEmpty() && (renderedEvents.peekFirst().getStoreIndex() < firstStoreIndex
+                || renderedEvents.peekFirst().getTimestamp() < timeRange[0])) {
+            renderedEvents.pollFirst();
+            trimCount++;
+        }
+        if (!pendingEntryRefresh.isEmpty()) {
+            for (LogProcessor.LogEvent event : renderedEvents) {
+                if (pendingEntryRefresh.contains(event.getId())) {
+                    long start = metrics.start();
+                    String fragment = logDisplay.generateLogFragments(List.of(event));
+                    metrics.stop(metrics.render, start);
+                    ui.replaceLogEntry(LogDisplay.elementId(event), fragment);
+                }
+            }
+            pendingEntryRefresh.clear();
+        }
+        if (!arrived.isEmpty()) {
+            nextUnrenderedIndex = arrived.get(arrived.size() - 1).getStoreIndex() + 1;
+        }
+        renderedFirstStoreIndex = firstStoreIndex;
+        if (fresh.isEmpty() && trimCount == 0) {
+            return;
+        }
+        // LogFilter sorts by timestamp, so a batch can arrive out of store order; the head trim above then stops at the
+        // first surviving entry, and only a full render on the next eviction removes the evicted ones behind it
+        renderedInStoreOrder = renderedInStoreOrder && inStoreOrder(fresh,
+                renderedEvents.isEmpty() ? Long.MIN_VALUE : renderedEvents.peekLast().getStoreIndex());
+        renderedEvents.addAll(fresh);
+        long start = metrics.start();
+        String fragments = logDisplay.generateLogFragments(fresh);
+        metrics.stop(metrics.render, start);
+        ui.appendLogContent(fragments, trimCount, fresh);
+    }
+
+    private void renderFull(ViewState viewState, long[] timeRange, long expandVersion) {
+        long firstStoreIndex = logProcessor.getFirstStoreIndex();
+        List<LogProcessor.LogEvent> allLogs = candidateLogs(viewState);
+        // Derive the resume point from the snapshot itself so events arriving meanwhile are neither lost nor doubled
+        long nextIndex = firstStoreIndex;
+        for (LogProcessor.LogEvent event : allLogs) {
+            nextIndex = Math.max(nextIndex, event.getStoreIndex() + 1);
+        }
+        List<LogProcessor.LogEvent> filtered = filterLogs(allLogs, viewState, timeRange);
+        long start = metrics.start();
+        String html = logDisplay.generateLogHtml(filtered);
+        metrics.stop(metrics.render, start);
+        ui.setLogContent(html, filtered);
+        renderedEvents.clear();
+        renderedEvents.addAll(filtered);
+        renderedInStoreOrder = inStoreOrder(filtered, Long.MIN_VALUE);
+        pendingEntryRefresh.clear();
+        renderedViewState = viewState;
+        renderedExpandVersion = expandVersion;
+        renderedFirstStoreIndex = firstStoreIndex;
+        nextUnrenderedIndex = nextIndex;
+    }
+
+    // Whether store indexes ascend through events, starting above previousIndex
+    private static boolean inStoreOrder(List<LogProcessor.LogEvent> events, long previousIndex) {
+        for (LogProcessor.LogEvent event : events) {
+            if (event.getStoreIndex() < previousIndex) {
+                return false;
+            }
+            previousIndex = event.getStoreIndex();
+        }
+        return true;
+    }
+
+    // Every stored event viewState shows, ordered by timestamp; what copy and export take
+    public List<LogProcessor.LogEvent> filteredLogs(ViewState viewState) {
+        return filterLogs(candidateLogs(viewState), viewState, convertTimeRange(viewState.timeRange()));
+    }
+
+    // The events of logs that viewState shows, ordered by timestamp
+    public List<LogProcessor.LogEvent> filterLogs(Collection<LogProcessor.LogEvent> logs, ViewState viewState) {
+        return filterLogs(logs, viewState, convertTimeRange(viewState.timeRange()));
+    }
+
+    // With a correlation filter only that trace can match, and the correlation index yields it without a store scan
+    private List<LogProcessor.LogEvent> candidateLogs(ViewState viewState) {
+        return viewState.correlationId().isEmpty() ? logProcessor.getAllLogs() : logProcessor.getTrace(viewState.correlationId());
+    }
+
+    private List<LogProcessor.LogEvent> filterLogs(Collection<LogProcessor.LogEvent> logs, ViewState viewState, long[] timeRange) {
+        long start = metrics.start();
+        List<LogProcessor.LogEvent> filtered = new ArrayList<>(logFilter.filterLogs(
+                logs,
+                convertToSet(viewState.levels()),
+                viewState.sources(),
+                viewState.allSources(),
+                viewState.category(),
+                viewState.searchQuery(),
+                viewState.deviceId(),
+                viewState.correlationId(),
+                timeRange));
+        metrics.stop(metrics.filter, start);
+        return filtered;
+    }
+
+    private Set<Integer> convertToSet(int levelMask) {
+        Set<Integer> levels = new HashSet<>();
+        if (levelMask == 255) {
+            for (LogProcessor.LogLevel level : LogProcessor.LogLevel.values()) {
+                levels.add(level.getValue());
+            }
+        } else {
+            for (LogProcessor.LogLevel level : LogProcessor.LogLevel.values()) {
+                if ((levelMask & level.getValue()) != 0) {
+                    levels.add(level.getValue());
+                }
+            }
+        }
+        return levels;
+    }
+
+    private long[] convertTimeRange(String timeRange) {
+        long currentTime = System.currentTimeMillis();
+        long[] range = new long[2];
+        range[1] = currentTime;
+        switch (timeRange) {
+            case "Last 5 Minutes":
+                range[0] = currentTime - (5 * 60 * 1000);
+                break;
+            case "Last 1 Hour":
+                range[0] = currentTime - (1 * 60 * 60 * 1000);
+                break;
+            case "Last 24 Hours":
+                range[0] = currentTime - (24 * 60 * 60 * 1000);
+                break;
+            case "Last 7 Days":
+                range[0] = currentTime - (7 * 24 * 60 * 1000);
+                break;
+            case "All Time":
+            default:
+                range[0] = 0;
+                break;
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("[LogViewRefresher] Converted time range: " + timeRange + " to [" + range[0] + ", " + range[1] + "]");
+        }
+        return range;
+    }
+}
@@ -3,14 +3,12 @@ package com.picoedge.ai_tools;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
-import org.java_websocket.WebSocket;
 import org.java_websocket.client.WebSocketClient;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.logging.Logger; // Logger for diagnostics
 
@@ -197,21 +195,13 @@ public class NewEntryDialog {
                         }
                         String message = objectMapper.writeValueAsString(event);
                         boolean sentSuccessfully = false;
+                        boolean deliveredLocally = false;
                         if (webSocketManager.isUseLocalServer()) {
-                            ConcurrentHashMap<String, WebSocket> connections = webSocketManager.getServer().getActiveConnections();
-                            if (connections != null) {
-                                for (WebSocket conn : connections.values()) {
-                                    if (conn.isOpen()) {
-                                        try {
-                                            conn.send(message);
-                                            LOGGER.info("[NewEntryDialog] Sent new log event to client: " + conn.getRemoteSocketAddress());
-                                            sentSuccessfully = true;
-                                        } catch (Exception ex) {
-                                            LOGGER.warning("[NewEntryDialog] Failed to send new log event to client: " + conn.getRemoteSocketAddress() + ", error: " + ex.getMessage());
-                                        }
-                                    }
-                                }
-                            }
+                            // The shared hub delivers it to every open project's pane, this one included
+                            int delivered = webSocketManager.publishLocal(message);
+                            LOGGER.info("[NewEntryDialog] Sent new log event to " + Math.max(0, delivered) + " clients");
+                            sentSuccessfully = delivered > 0;
+                            deliveredLocally = delivered >= 0;
                         } else if (webSocketManager.getClient() != null && webSocketManager.getClient().isOpen()) {
                             try {
                                 webSocketManager.getClient().send(message);
@@ -222,7 +212,9 @@ public class NewEntryDialog {
                             }
                         }
                         // Process the event locally to update the LogPane UI immediately
-                        logPane.handleMessage(message); // Direct call to LogPane's handleMessage to update UI
+                        if (!deliveredLocally) {
+                            logPane.handleMessage(message); // Direct call to LogPane's handleMessage to update UI
+                        }
                         if (sentSuccessfully || webSocketManager.isConnected()) {
                             dialog.dispose();
                             LOGGER.info("[NewEntryDialog] Submitted new log event: " + message);
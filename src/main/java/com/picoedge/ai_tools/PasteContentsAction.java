@@ -19,8 +19,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.logging.Logger;
 
 public class PasteContentsAction extends AnAction {
+    private static final Logger LOGGER = Logger.getLogger(PasteContentsAction.class.getName());
     private static final Pattern FILE_PATTERN = Pattern.compile(
             "####\\s*(.+?)\\s*\\n```(?:\\w+)?\\n([\\s\\S]*?)\\n```\\s*(?:\\n|$)",
             Pattern.MULTILINE
@@ -131,10 +133,10 @@ public class PasteContentsAction extends AnAction {
     }
 
     private String remapPath(String originalPath, String sourceRoot) {
-        System.out.println("remapPath inputs: original=" + originalPath + ", sourceRoot=" + sourceRoot);
+        LOGGER.fine(() -> "remapPath inputs: original=" + originalPath + ", sourceRoot=" + sourceRoot);
 
         if (StringUtils.isBlank(originalPath)) {
-            System.out.println("remapPath output: '' (blank originalPath)");
+            LOGGER.fine(() -> "remapPath output: '' (blank originalPath)");
             return "";
         }
 
@@ -150,12 +152,13 @@ public class PasteContentsAction extends AnAction {
 
         // Return the relative path for non-root pasting
         if (StringUtils.isBlank(relativePath)) {
-            System.out.println("remapPath output: '' (empty relativePath)");
+            LOGGER.fine(() -> "remapPath output: '' (empty relativePath)");
             return "";
         }
 
-        System.out.println("remapPath output: " + relativePath);
-        return relativePath.replaceAll("/+", "/");
+        String remappedPath = relativePath;
+        LOGGER.fine(() -> "remapPath output: " + remappedPath);
+        return remappedPath.replaceAll("/+", "/");
     }
 
     private void createOrUpdateFile(PsiDirectory baseDirectory, String relativePath, String content) throws IOException {
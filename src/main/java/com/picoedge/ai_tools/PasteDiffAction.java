@@ -21,8 +21,10 @@ import java.util.List;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.logging.Logger;
 
 public class PasteDiffAction extends AnAction {
+    private static final Logger LOGGER = Logger.getLogger(PasteDiffAction.class.getName());
     private static final Pattern FILE_PATTERN = Pattern.compile(
             "####\\s*(.+?)\\s*\\n```(?:(\\w*):)?diff:index\\s*\\w+\\.\\.\\w+\\s*\\d+\\s*\\n([\\s\\S]*?)\\n```\\s*(?:\\n|$)",
             Pattern.MULTILINE
@@ -305,7 +307,7 @@ public class PasteDiffAction extends AnAction {
                 if (currentLine < resultLines.size() && Objects.equals(removeLine, resultLines.get(currentLine))) {
                     resultLines.remove(currentLine);
                 } else {
-                    System.out.println("Warning: Expected to remove line '" + removeLine + "' at " + (currentLine + 1) + ", found '" +
+                    LOGGER.warning("Warning: Expected to remove line '" + removeLine + "' at " + (currentLine + 1) + ", found '" +
                             (currentLine < resultLines.size() ? resultLines.get(currentLine) : "EOF") + "'");
                 }
             } else if (line.startsWith("+")) {
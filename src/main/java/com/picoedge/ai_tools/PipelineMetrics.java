@@ -0,0 +1,365 @@
+package com.picoedge.ai_tools;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Counters and latency histograms for the ingest -> store -> filter -> render pipeline of one log pane.
+// Counters are LongAdders and always on; System.nanoTime() is only taken while timing is enabled, which
+// happens while the metrics strip is expanded and showing or a JMX client switched it on.
+public class PipelineMetrics implements PipelineMetricsMBean {
+    private static final Logger LOGGER = Logger.getLogger(PipelineMetrics.class.getName());
+
+    final LongAdder messagesReceived = new LongAdder(); // Events, counting each event of a batch frame
+    final LongAdder batchFrames = new LongAdder(); // Frames that carried a JSON array or NDJSON batch
+    final LongAdder parseFailures = new LongAdder();
+    final LongAdder dedupHits = new LongAdder();
+    final LongAdder eventsStored = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final Histogram parse = new Histogram();
+    final Histogram filter = new Histogram();
+    final Histogram render = new Histogram();
+    final Histogram refresh = new Histogram();
+    final Histogram document = new Histogram();
+    // Per-event trace stages, from the receive/parse/store/render stamps on LogEvent
+    final Histogram receiveToParsed = new Histogram();
+    final Histogram parsedToStored = new Histogram();
+    final Histogram storedToRendered = new Histogram();
+    final Histogram receiveToRendered = new Histogram();
+    final Histogram producerToScreen = new Histogram();
+    // Smallest (receive wall clock - producer timestamp) seen per source: clock skew plus the fastest delivery
+    private final ConcurrentHashMap<String, Long> minProducerOffsetMillis = new ConcurrentHashMap<>();
+    private volatile boolean panelTimingEnabled = false;
+    private volatile boolean jmxTimingEnabled = false;
+    private LongSupplier storeSize = () -> 0;
+    private LongSupplier storeBytes = () -> 0;
+    private LongSupplier queueDepth = () -> 0;
+    private long rateSampleNanos = System.nanoTime();
+    private long rateSampleCount = 0;
+    private double ingestRate = 0;
+    private ObjectName objectName = null; // Set only while this instance is registered under it
+    private String projectName = "";
+
+    // Fixed power-of-two buckets over nanoseconds: recording is one LongAdder increment, percentiles are
+    // approximate to within a factor of two, which is plenty to tell microseconds from milliseconds
+    public static final class Histogram {
+        private static final int BUCKETS = 40; // 2^39 ns is roughly nine minutes
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            int bucket = nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+            buckets[bucket].increment();
+            max.accumulate(nanos);
+        }
+
+        public double maxMicros() {
+            return max.get() / 1000.0;
+        }
+
+        public long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        // Upper bound of the bucket holding the given percentile (capped at the max), in microseconds; 0 when empty
+        public double percentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(1L << i, max.get()) / 1000.0;
+                }
+            }
+            return max.get() / 1000.0;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            max.reset();
+        }
+    }
+
+    // Returns a start timestamp, or 0 when timing is off so the matching stop() is a no-op
+    public long start() {
+        return isTimingActive() ? System.nanoTime() : 0;
+    }
+
+    public void stop(Histogram histogram, long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public boolean isTimingActive() {
+        return panelTimingEnabled || jmxTimingEnabled;
+    }
+
+    // Called by LogProcessor once an event is stored; stamps are 0 for events ingested while timing was off
+    void traceStored(LogProcessor.LogEvent event, long receivedMillis) {
+        if (event.receivedNanos == 0) {
+            return;
+        }
+        receiveToParsed.record(event.parsedNanos - event.receivedNanos);
+        parsedToStored.record(event.storedNanos - event.parsedNanos);
+        if (event.producerTimestamp) {
+            minProducerOffsetMillis.merge(event.source, receivedMillis - event.timestamp, Math::min);
+        }
+    }
+
+    // Called on the EDT right after the document shows the given events; only their first appearance counts
+    void traceRendered(List<LogProcessor.LogEvent> events) {
+        if (!isTimingActive()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        for (LogProcessor.LogEvent event : events) {
+            if (event.storedNanos == 0 || event.renderedNanos != 0) {
+                continue;
+            }
+            event.renderedNanos = now;
+            storedToRendered.record(now - event.storedNanos);
+            receiveToRendered.record(now - event.receivedNanos);
+            Long minOffset = event.producerTimestamp ? minProducerOffsetMillis.get(event.source) : null;
+            if (minOffset != null) {
+                producerToScreen.record((nowMillis - event.timestamp - minOffset) * 1_000_000L);
+            }
+        }
+    }
+
+    public void setGauges(LongSupplier storeSize, LongSupplier storeBytes, LongSupplier queueDepth) {
+        this.storeSize = storeSize;
+        this.storeBytes = storeBytes;
+        this.queueDepth = queueDepth;
+    }
+
+    public void setPanelTimingEnabled(boolean enabled) {
+        this.panelTimingEnabled = enabled;
+    }
+
+    // Keyed on projectKey (the project's location hash), since two open projects can share a name; the name is the
+    // ProjectName attribute. A name taken by another pane is never unregistered here: this one gets an instance key
+    public void registerMBean(String projectKey, String projectName) {
+        this.projectName = projectName;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            String base = "com.picoedge.ai_tools:type=PipelineMetrics,project=" + ObjectName.quote(projectKey);
+            ObjectName name = new ObjectName(base);
+            if (server.isRegistered(name)) {
+                name = new ObjectName(base + ",instance=" + Integer.toHexString(System.identityHashCode(this)));
+            }
+            server.registerMBean(this, name);
+            objectName = name;
+            LOGGER.info("[PipelineMetrics] Registered MBean: " + name + ", projectName=" + projectName);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "[PipelineMetrics] Failed to register MBean: error=" + e.getMessage(), e);
+        }
+    }
+
+    public void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "[PipelineMetrics] Failed to unregister MBean: error=" + e.getMessage(), e);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    @Override
+    public long getBatchFrames() {
+        return batchFrames.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public long getDedupHits() {
+        return dedupHits.sum();
+    }
+
+    @Override
+    public long getEventsStored() {
+        return eventsStored.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getStoreSize() {
+        return storeSize.getAsLong();
+    }
+
+    @Override
+    public long getStoreBytes() {
+        return storeBytes.getAsLong();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return queueDepth.getAsLong();
+    }
+
+    // Messages per second since the previous sample; samples closer than a second apart reuse the last value
+    @Override
+    public synchronized double getIngestRatePerSecond() {
+        long now = System.nanoTime();
+        long elapsed = now - rateSampleNanos;
+        if (elapsed >= 1_000_000_000L) {
+            long count = messagesReceived.sum();
+            ingestRate = (count - rateSampleCount) * 1e9 / elapsed;
+            rateSampleCount = count;
+            rateSampleNanos = now;
+        }
+        return ingestRate;
+    }
+
+    @Override
+    public double getParseP50Micros() {
+        return parse.percentileMicros(50);
+    }
+
+    @Override
+    public double getParseP99Micros() {
+        return parse.percentileMicros(99);
+    }
+
+    @Override
+    public double getFilterP50Micros() {
+        return filter.percentileMicros(50);
+    }
+
+    @Override
+    public double getFilterP99Micros() {
+        return filter.percentileMicros(99);
+    }
+
+    @Override
+    public double getRenderP50Micros() {
+        return render.percentileMicros(50);
+    }
+
+    @Override
+    public double getRenderP99Micros() {
+        return render.percentileMicros(99);
+    }
+
+    @Override
+    public double getRefreshP50Micros() {
+        return refresh.percentileMicros(50);
+    }
+
+    @Override
+    public double getRefreshP99Micros() {
+        return refresh.percentileMicros(99);
+    }
+
+    @Override
+    public double getDocumentUpdateP50Micros() {
+        return document.percentileMicros(50);
+    }
+
+    @Override
+    public double getDocumentUpdateP99Micros() {
+        return document.percentileMicros(99);
+    }
+
+    @Override
+    public String[] getTraceLatencies() {
+        return new String[]{
+                formatStage("receive -> parsed", receiveToParsed),
+                formatStage("parsed -> stored", parsedToStored),
+                formatStage("stored -> rendered", storedToRendered),
+                formatStage("receive -> rendered", receiveToRendered),
+                formatStage("producer -> screen (skew corrected)", producerToScreen)};
+    }
+
+    private static String formatStage(String stage, Histogram histogram) {
+        return String.format("%s: p50=%.0fus p99=%.0fus max=%.0fus n=%d", stage, histogram.percentileMicros(50),
+                histogram.percentileMicros(99), histogram.maxMicros(), histogram.count());
+    }
+
+    @Override
+    public boolean isTimingEnabled() {
+        return jmxTimingEnabled;
+    }
+
+    @Override
+    public void setTimingEnabled(boolean enabled) {
+        this.jmxTimingEnabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        messagesReceived.reset();
+        batchFrames.reset();
+        parseFailures.reset();
+        dedupHits.reset();
+        eventsStored.reset();
+        evictions.reset();
+        parse.reset();
+        filter.reset();
+        render.reset();
+        refresh.reset();
+        document.reset();
+        receiveToParsed.reset();
+        parsedToStored.reset();
+        storedToRendered.reset();
+        receiveToRendered.reset();
+        producerToScreen.reset();
+        minProducerOffsetMillis.clear();
+        synchronized (this) {
+            rateSampleCount = 0;
+            rateSampleNanos = System.nanoTime();
+            ingestRate = 0;
+        }
+    }
+}
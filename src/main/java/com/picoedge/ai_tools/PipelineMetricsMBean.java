@@ -0,0 +1,32 @@
+package com.picoedge.ai_tools;
+
+// JMX view of PipelineMetrics, readable with jconsole under com.picoedge.ai_tools:type=PipelineMetrics,project=<location hash>
+public interface PipelineMetricsMBean {
+    String getProjectName();
+    long getMessagesReceived();
+    long getBatchFrames();
+    long getParseFailures();
+    long getDedupHits();
+    long getEventsStored();
+    long getEvictions();
+    long getStoreSize();
+    long getStoreBytes();
+    long getQueueDepth();
+    double getIngestRatePerSecond();
+    double getParseP50Micros();
+    double getParseP99Micros();
+    double getFilterP50Micros();
+    double getFilterP99Micros();
+    double getRenderP50Micros();
+    double getRenderP99Micros();
+    double getRefreshP50Micros();
+    double getRefreshP99Micros();
+    double getDocumentUpdateP50Micros();
+    double getDocumentUpdateP99Micros();
+    // p50/p99/max per trace stage: receive -> parsed -> stored -> rendered, plus skew-corrected producer -> screen
+    String[] getTraceLatencies();
+    // Latency histograms are only fed while timing is on, either from here or while the metrics strip is open
+    boolean isTimingEnabled();
+    void setTimingEnabled(boolean enabled);
+    void reset();
+}
@@ -0,0 +1,130 @@
+package com.picoedge.ai_tools;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+// Events per second above the log, one stacked bar per RateIndex bucket colored by level, ending with the newest
+// stored event. Every paint asks the store's aggregates for as many buckets as fit, so its cost depends on the panel
+// width and never on the number of events. Clicking a bar jumps the log view to the first shown event of that second,
+// or briefly says in the strip why it cannot.
+public class RateHistogramPanel extends JComponent {
+    private static final int BAR_WIDTH = 4;
+    private static final int BAR_GAP = 1;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final Font LABEL_FONT = new Font("SansSerif", Font.PLAIN, 10);
+    private static final Color[] LEVEL_COLORS = new Color[RateIndex.LEVELS];
+    private static final int STATUS_MILLIS = 4000;
+    private final IntFunction<LogProcessor.RateHistogram> histogram; // Bucket count to the newest buckets
+    private LogProcessor.RateHistogram painted; // EDT only; what tooltips and clicks refer to
+    private String status; // EDT only; shown in place of the peak label until statusTimer fires
+    private final Timer statusTimer = new Timer(STATUS_MILLIS, e -> {
+        status = null;
+        repaint();
+    });
+
+    static {
+        for (int slot = 0; slot < RateIndex.LEVELS; slot++) {
+            LEVEL_COLORS[slot] = Color.decode(LogDisplay.levelColor(1 << slot));
+        }
+    }
+
+    public RateHistogramPanel(IntFunction<LogProcessor.RateHistogram> histogram, LongConsumer onJumpToTime) {
+        this.histogram = histogram;
+        setPreferredSize(new Dimension(100, 36));
+        statusTimer.setRepeats(false);
+        setToolTipText(""); // Registers with the tooltip manager; the text comes from getToolTipText(MouseEvent)
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int bucket = bucketAt(e.getX());
+                if (bucket >= 0) {
+                    onJumpToTime.accept(painted.firstBucketMillis() + bucket * painted.bucketMillis());
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int slots = Math.max(1, getWidth() / (BAR_WIDTH + BAR_GAP));
+        painted = histogram.apply(slots);
+        g.setColor(new Color(30, 30, 30));
+        g.fillRect(0, 0, getWidth(), getHeight());
+        int[][] counts = painted.counts();
+        int max = 1;
+        for (int[] bucket : counts) {
+            max = Math.max(max, total(bucket));
+        }
+        int height = getHeight() - 2;
+        int x = getWidth() - counts.length * (BAR_WIDTH + BAR_GAP); // Newest bucket at the right edge
+        for (int[] bucket : counts) {
+            int y = getHeight();
+            for (int slot = RateIndex.LEVELS - 1; slot >= 0; slot--) { // Most severe at the bottom, where bursts start
+                if (bucket[slot] == 0) {
+                    continue;
+                }
+                int barHeight = Math.max(1, (int) ((long) bucket[slot] * height / max));
+                g.setColor(LEVEL_COLORS[slot]);
+                g.fillRect(x, y - barHeight, BAR_WIDTH, barHeight);
+                y -= barHeight;
+            }
+            x += BAR_WIDTH + BAR_GAP;
+        }
+        g.setColor(status != null ? Color.ORANGE : Color.GRAY);
+        g.setFont(LABEL_FONT);
+        g.drawString(status != null ? status : "peak " + max + "/s", 4, 11);
+    }
+
+    public void showStatus(String message) {
+        status = message;
+        statusTimer.restart();
+        repaint();
+    }
+
+    static String formatTime(long millis) {
+        return TIME_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int bucket = bucketAt(e.getX());
+        if (bucket < 0) {
+            return null;
+        }
+        int[] counts = painted.counts()[bucket];
+        StringBuilder text = new StringBuilder("<html>").append(formatTime(painted.firstBucketMillis() + bucket * painted.bucketMillis()))
+                .append(": ").append(total(counts)).append(" events");
+        for (int slot = RateIndex.LEVELS - 1; slot >= 0; slot--) {
+            if (counts[slot] > 0) {
+                text.append("<br>").append(LogProcessor.LogLevel.toString(1 << slot)).append(' ').append(counts[slot]);
+            }
+        }
+        return text.append("<br>Click to jump there</html>").toString();
+    }
+
+    // Index into the painted buckets, or -1 outside them or over an empty bucket
+    private int bucketAt(int x) {
+        if (painted == null) {
+            return -1;
+        }
+        int[][] counts = painted.counts();
+        int offset = x - (getWidth() - counts.length * (BAR_WIDTH + BAR_GAP));
+        int bucket = offset < 0 ? -1 : offset / (BAR_WIDTH + BAR_GAP);
+        return bucket >= 0 && bucket < counts.length && total(counts[bucket]) > 0 ? bucket : -1;
+    }
+
+    private static int total(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
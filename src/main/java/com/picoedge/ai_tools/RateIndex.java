@@ -0,0 +1,108 @@
+package com.picoedge.ai_tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Event counts per BUCKET_MILLIS of event timestamp, by level and by source, plus each bucket's events in store order.
+// LogProcessor keeps it in step with the store under its allLogs lock: counts go up on append and down on eviction,
+// and empty buckets are dropped, so the index only ever covers what the store holds. Eviction takes the oldest stored
+// event, which is always the head of its bucket's deque. Reading a range costs the buckets asked for, never the events,
+// and a bucket's events are found without a store scan whatever order they arrived in.
+class RateIndex {
+    static final long BUCKET_MILLIS = 1000;
+    static final int LEVELS = 8; // Trace through Fatal, one bit each
+
+    private static final class Bucket {
+        final int[] byLevel = new int[LEVELS];
+        final Map<String, int[]> bySource = new HashMap<>(4);
+        final ArrayDeque<LogProcessor.LogEvent> events = new ArrayDeque<>(4);
+    }
+
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>(); // Keyed by timestamp / BUCKET_MILLIS
+
+    void add(LogProcessor.LogEvent event) {
+        Bucket bucket = buckets.computeIfAbsent(Math.floorDiv(event.timestamp, BUCKET_MILLIS), key -> new Bucket());
+        int slot = levelSlot(event.level);
+        bucket.byLevel[slot]++;
+        bucket.bySource.computeIfAbsent(event.source, source -> new int[LEVELS])[slot]++;
+        bucket.events.addLast(event);
+    }
+
+    void remove(LogProcessor.LogEvent evicted) {
+        long key = Math.floorDiv(evicted.timestamp, BUCKET_MILLIS);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        int slot = levelSlot(evicted.level);
+        bucket.byLevel[slot]--;
+        int[] sourceCounts = bucket.bySource.get(evicted.source);
+        if (sourceCounts != null && --sourceCounts[slot] == 0 && isEmpty(sourceCounts)) {
+            bucket.bySource.remove(evicted.source);
+        }
+        if (bucket.events.peekFirst() == evicted) {
+            bucket.events.pollFirst();
+        } else {
+            bucket.events.remove(evicted);
+        }
+        if (bucket.events.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    // The stored events of one bucket in store order
+    List<LogProcessor.LogEvent> events(long bucket) {
+        Bucket found = buckets.get(bucket);
+        return found != null ? new ArrayList<>(found.events) : new ArrayList<>();
+    }
+
+    void clear() {
+        buckets.clear();
+    }
+
+    // Bucket number of the newest stored event, or Long.MIN_VALUE when the store is empty
+    long newestBucket() {
+        return buckets.isEmpty() ? Long.MIN_VALUE : buckets.lastKey();
+    }
+
+    // counts[i][slot] for buckets firstBucket + i; sources null counts every source
+    int[][] counts(long firstBucket, int bucketCount, Set<String> sources) {
+        int[][] counts = new int[bucketCount][LEVELS];
+        for (Map.Entry<Long, Bucket> entry : buckets.subMap(firstBucket, firstBucket + bucketCount).entrySet()) {
+            int[] row = counts[(int) (entry.getKey() - firstBucket)];
+            Bucket bucket = entry.getValue();
+            if (sources == null) {
+                System.arraycopy(bucket.byLevel, 0, row, 0, LEVELS);
+                continue;
+            }
+            for (Map.Entry<String, int[]> source : bucket.bySource.entrySet()) {
+                if (sources.contains(source.getKey())) {
+                    for (int slot = 0; slot < LEVELS; slot++) {
+                        row[slot] += source.getValue()[slot];
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Levels are single bits 1..128; anything else counts under its lowest set bit, or as Info when it has none
+    static int levelSlot(int level) {
+        int slot = level > 0 ? Integer.numberOfTrailingZeros(level) : 2;
+        return Math.min(slot, LEVELS - 1);
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
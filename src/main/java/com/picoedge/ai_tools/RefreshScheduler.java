@@ -0,0 +1,87 @@
+package com.picoedge.ai_tools;
+
+import java.awt.event.HierarchyEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+// Coalesces refresh requests from any thread into at most maxRefreshesPerSecond renders on the EDT.
+// Requests only mark the view dirty; while the target component is not showing (tool window hidden)
+// the scheduler parks with `scheduled` still set, so requests post nothing to the EDT and no rendering
+// happens at all, and a single catch-up render runs once it becomes visible again.
+public class RefreshScheduler {
+    public static final int DEFAULT_MAX_REFRESHES_PER_SECOND = 20;
+
+    private final JComponent target;
+    private final Runnable render;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Timer timer; // Swing timer so the render callback runs on the EDT
+    private volatile int maxRefreshesPerSecond;
+    private long lastRenderNanos = 0; // EDT only
+    private boolean parked = false; // EDT only; a flush found the target hidden and left `scheduled` set
+
+    public RefreshScheduler(JComponent target, int maxRefreshesPerSecond, Runnable render) {
+        this.target = target;
+        this.render = render;
+        this.maxRefreshesPerSecond = Math.max(1, maxRefreshesPerSecond);
+        this.timer = new Timer(0, e -> flush());
+        this.timer.setRepeats(false);
+        target.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0 || !target.isShowing()) {
+                return;
+            }
+            if (parked) {
+                parked = false;
+                scheduled.set(false);
+            }
+            if (dirty.get()) {
+                schedule();
+            }
+        });
+    }
+
+    // Safe to call from any thread and at any rate; costs a volatile write when a render is already pending
+    public void requestRefresh() {
+        dirty.set(true);
+        schedule();
+    }
+
+    public void setMaxRefreshesPerSecond(int maxRefreshesPerSecond) {
+        this.maxRefreshesPerSecond = Math.max(1, maxRefreshesPerSecond);
+    }
+
+    public int getMaxRefreshesPerSecond() {
+        return maxRefreshesPerSecond;
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            long intervalNanos = 1_000_000_000L / maxRefreshesPerSecond;
+            long waitMs = (lastRenderNanos + intervalNanos - System.nanoTime()) / 1_000_000L;
+            if (waitMs <= 0) {
+                flush();
+            } else {
+                timer.setInitialDelay((int) waitMs);
+                timer.restart();
+            }
+        });
+    }
+
+    private void flush() {
+        if (!target.isShowing()) {
+            parked = true; // Stay dirty and scheduled; the hierarchy listener unparks when the view is shown again
+            return;
+        }
+        scheduled.set(false);
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        lastRenderNanos = System.nanoTime();
+        render.run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.picoedge.ai_tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The last capacity events the local hub forwarded, so a client that reconnects with {"action":"subscribe","since":N}
+// receives only what it missed instead of losing the gap or having everything re-sent.
+// Every forwarded event is stamped with a monotonic sequence number as its first field, {"seq":N,...}, which lets
+// clients track their position with a prefix check rather than a parse. Compound operations synchronize on the ring.
+public class ReplayRing {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final String SEQ_PREFIX = "{\"seq\":";
+
+    record Entry(long seq, String message, int level, String category) {
+    }
+
+    private final Entry[] entries;
+    private long nextSeq = 0;
+
+    public ReplayRing(int capacity) {
+        this.entries = new Entry[capacity];
+    }
+
+    // Stamps a JSON-object message with the next sequence number, retains it and returns the stamped message
+    public synchronized String append(String message, int level, String category) {
+        long seq = nextSeq++;
+        String stamped = stamp(seq, message);
+        entries[(int) (seq % entries.length)] = new Entry(seq, stamped, level, category);
+        return stamped;
+    }
+
+    // Retained entries with afterSeq < seq < beforeSeq, oldest first
+    public synchronized List<Entry> between(long afterSeq, long beforeSeq) {
+        long from = Math.max(afterSeq + 1, oldestSeq());
+        long to = Math.min(beforeSeq, nextSeq);
+        List<Entry> result = new ArrayList<>((int) Math.max(0, to - from));
+        for (long seq = from; seq < to; seq++) {
+            result.add(entries[(int) (seq % entries.length)]);
+        }
+        return result;
+    }
+
+    public synchronized long nextSeq() {
+        return nextSeq;
+    }
+
+    public synchronized long oldestSeq() {
+        return Math.max(0, nextSeq - entries.length);
+    }
+
+    static String stamp(long seq, String message) {
+        int brace = message.indexOf('{');
+        String rest = message.substring(brace + 1);
+        boolean empty = rest.trim().startsWith("}");
+        return SEQ_PREFIX + seq + (empty ? "" : ",") + rest;
+    }
+
+    // The hub sequence number of a forwarded event, or -1 for frames that did not come through a hub ring
+    public static long seqOf(String message) {
+        if (!message.startsWith(SEQ_PREFIX)) {
+            return -1;
+        }
+        long seq = 0;
+        int i = SEQ_PREFIX.length();
+        for (; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            seq = seq * 10 + (c - '0');
+        }
+        return i > SEQ_PREFIX.length() ? seq : -1;
+    }
+}
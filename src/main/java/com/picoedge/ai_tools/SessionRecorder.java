@@ -0,0 +1,72 @@
+package com.picoedge.ai_tools;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+// Captures every message reaching LogPane.handleMessage for later replay by SessionReplayer.
+// File layout, gzipped: magic, version, then per message the nanoseconds since the previous one, the UTF-8 length
+// and the bytes. Both numbers are unsigned varints, so framing costs three or four bytes per message.
+public class SessionRecorder implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(SessionRecorder.class.getName());
+    static final int MAGIC = 0x50454C43; // "PELC"
+    static final int VERSION = 1;
+    public static final String EXTENSION = "pelc";
+
+    private final Path file;
+    private final DataOutputStream out;
+    private long lastNanos = 0;
+    private long messages = 0;
+    private long payloadBytes = 0;
+
+    public SessionRecorder(Path file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        LOGGER.info("[SessionRecorder] Recording to " + file);
+    }
+
+    // Called from socket threads and the EDT; receivedNanos is the stamp LogPane got with the frame
+    public synchronized void record(String message, long receivedNanos) throws IOException {
+        // Concurrent receivers stamp before they serialize here, so a delta can come out slightly negative
+        long delta = messages == 0 ? 0 : Math.max(0, receivedNanos - lastNanos);
+        lastNanos = messages == 0 ? receivedNanos : Math.max(lastNanos, receivedNanos);
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, delta);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+        messages++;
+        payloadBytes += bytes.length;
+    }
+
+    public synchronized long getMessages() {
+        return messages;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+        LOGGER.info("[SessionRecorder] Closed " + file + ": messages=" + messages + ", payloadBytes=" + payloadBytes
+                + ", fileBytes=" + Files.size(file));
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
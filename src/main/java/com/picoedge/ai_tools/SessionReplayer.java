@@ -0,0 +1,115 @@
+package com.picoedge.ai_tools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+// Plays a SessionRecorder capture back into a message handler with the recorded inter-arrival times scaled by a
+// speed factor, so the same traffic can be pushed through the pipeline before and after a change
+public class SessionReplayer {
+    private static final Logger LOGGER = Logger.getLogger(SessionReplayer.class.getName());
+    public static final String[] SPEEDS = {"1x", "2x", "10x", "100x", "Max"};
+
+    // maxLagNanos is how far the sink fell behind the capture's schedule; near zero means it kept up at this speed
+    public record Result(long messages, long capturedNanos, long elapsedNanos, long maxLagNanos, boolean cancelled) {
+        public double messagesPerSecond() {
+            return elapsedNanos > 0 ? messages * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    // "10x" -> 10, "Max" -> 0
+    public static double parseSpeed(String label) {
+        if (label == null || label.equalsIgnoreCase("max")) {
+            return 0;
+        }
+        return Double.parseDouble(label.endsWith("x") ? label.substring(0, label.length() - 1) : label);
+    }
+
+    // Blocks the calling thread. speed 1 keeps the recorded timing, N plays N times faster and 0 (or less) feeds
+    // messages as fast as the sink accepts them. The sink gets a fresh System.nanoTime() receive stamp per message.
+    public static Result replay(Path file, double speed, ObjLongConsumer<String> sink, BooleanSupplier cancelled) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024), 64 * 1024))) {
+            if (in.readInt() != SessionRecorder.MAGIC) {
+                throw new IOException("Not a session capture: " + file);
+            }
+            int version = in.readInt();
+            if (version != SessionRecorder.VERSION) {
+                throw new IOException("Unsupported session capture version " + version + ": " + file);
+            }
+            LOGGER.info("[SessionReplayer] Replaying " + file + " at " + (speed > 0 ? speed + "x" : "max speed"));
+            long start = System.nanoTime();
+            long capturedNanos = 0;
+            long messages = 0;
+            long maxLag = 0;
+            byte[] buffer = new byte[4096];
+            while (!cancelled.getAsBoolean()) {
+                long delta;
+                String message;
+                try {
+                    delta = readVarLong(in);
+                    if (delta < 0) {
+                        break; // Clean end of capture
+                    }
+                    int length = (int) readVarLong(in);
+                    if (length < 0) {
+                        throw new EOFException();
+                    }
+                    if (length > buffer.length) {
+                        buffer = new byte[Math.max(length, buffer.length * 2)];
+                    }
+                    in.readFully(buffer, 0, length);
+                    message = new String(buffer, 0, length, StandardCharsets.UTF_8);
+                } catch (EOFException e) {
+                    // A recording that was never closed (IDE killed mid-capture) ends in a partial gzip block
+                    LOGGER.warning("[SessionReplayer] Capture ends mid-record, stopping after " + messages + " messages: " + file);
+                    break;
+                }
+                capturedNanos += delta;
+                if (speed > 0) {
+                    long due = start + (long) (capturedNanos / speed);
+                    long remaining;
+                    while ((remaining = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(remaining);
+                    }
+                    maxLag = Math.max(maxLag, -remaining);
+                }
+                sink.accept(message, System.nanoTime());
+                messages++;
+            }
+            Result result = new Result(messages, capturedNanos, System.nanoTime() - start, maxLag, cancelled.getAsBoolean());
+            LOGGER.info("[SessionReplayer] Replay " + (result.cancelled() ? "cancelled" : "finished") + ": messages=" + messages
+                    + ", elapsedMs=" + result.elapsedNanos() / 1_000_000 + ", capturedMs=" + capturedNanos / 1_000_000
+                    + ", maxLagMs=" + maxLag / 1_000_000);
+            return result;
+        }
+    }
+
+    // Returns -1 at a clean end of stream, i.e. before the first byte of a value
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in session capture");
+    }
+}
@@ -8,66 +8,145 @@ import java.awt.*;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
+import java.util.logging.Logger;
 
 public class SettingsDialog {
+    private static final Logger LOGGER = Logger.getLogger(SettingsDialog.class.getName());
     private final Project project;
     private final VirtualFile envFile;
     private final Properties envProps;
     private final LogProcessor logProcessor;
     private final WebSocketManager webSocketManager;
+    private final RefreshScheduler refreshScheduler;
+    private final FileTailer fileTailer;
+    private final LogDisplay logDisplay;
 
-    public SettingsDialog(Project project, VirtualFile envFile, Properties envProps, LogProcessor logProcessor, WebSocketManager webSocketManager) {
+    public SettingsDialog(Project project, VirtualFile envFile, Properties envProps, LogProcessor logProcessor, WebSocketManager webSocketManager,
+                          RefreshScheduler refreshScheduler, FileTailer fileTailer, LogDisplay logDisplay) {
         this.project = project;
         this.envFile = envFile;
         this.envProps = envProps;
         this.logProcessor = logProcessor;
         this.webSocketManager = webSocketManager;
+        this.refreshScheduler = refreshScheduler;
+        this.fileTailer = fileTailer;
+        this.logDisplay = logDisplay;
     }
 
     public void show() {
         JDialog settingsDialog = new JDialog((Frame) null, "Log Settings", true);
-        settingsDialog.setLayout(new GridLayout(4, 2));
+        settingsDialog.setLayout(new GridLayout(13, 2));
         JTextField maxLogsField = new JTextField(String.valueOf(logProcessor.getMaxLogs()));
         JTextField wsUrlField = new JTextField(webSocketManager.getWsUrl());
         JCheckBox localServerCheckBox = new JCheckBox("Use Local Server", webSocketManager.isUseLocalServer());
+        JTextField maxRefreshHzField = new JTextField(String.valueOf(refreshScheduler.getMaxRefreshesPerSecond()));
+        JTextField serverDecodersField = new JTextField(String.valueOf(webSocketManager.getDecoderThreads()));
+        JTextField clientQueueLimitField = new JTextField(String.valueOf(webSocketManager.getMaxQueuedFrames()));
+        JComboBox<FanOutEngine.SlowConsumerPolicy> slowClientPolicyBox = new JComboBox<>(FanOutEngine.SlowConsumerPolicy.values());
+        slowClientPolicyBox.setSelectedItem(webSocketManager.getSlowConsumerPolicy());
+        JTextField hubCategoriesField = new JTextField(String.join(",", webSocketManager.getHubCategories()));
+        JTextField reorderWindowField = new JTextField(String.valueOf(webSocketManager.getReorderWindowMs()));
+        JTextField tailFilesField = new JTextField(fileTailer.getFiles());
+        JTextField copyMaxBytesField = new JTextField(String.valueOf(logDisplay.getCopyMaxBytes()));
+        JComboBox<LazyLogTransferable.Keep> copyKeepBox = new JComboBox<>(LazyLogTransferable.Keep.values());
+        copyKeepBox.setSelectedItem(logDisplay.getCopyKeep());
         settingsDialog.add(new JLabel("Maximum Logs:"));
         settingsDialog.add(maxLogsField);
-        settingsDialog.add(new JLabel("WebSocket URL:"));
+        settingsDialog.add(new JLabel("WebSocket URLs (comma-separated):"));
         settingsDialog.add(wsUrlField);
         settingsDialog.add(new JLabel("Server Mode:"));
         settingsDialog.add(localServerCheckBox);
+        settingsDialog.add(new JLabel("Max Refresh Rate (Hz):"));
+        settingsDialog.add(maxRefreshHzField);
+        settingsDialog.add(new JLabel("Server Decoder Threads:"));
+        settingsDialog.add(serverDecodersField);
+        settingsDialog.add(new JLabel("Client Queue Limit (frames):"));
+        settingsDialog.add(clientQueueLimitField);
+        settingsDialog.add(new JLabel("Slow Client Policy:"));
+        settingsDialog.add(slowClientPolicyBox);
+        settingsDialog.add(new JLabel("Local Server Categories:"));
+        settingsDialog.add(hubCategoriesField);
+        settingsDialog.add(new JLabel("Merge Reorder Window (ms):"));
+        settingsDialog.add(reorderWindowField);
+        settingsDialog.add(new JLabel("Tail Files (path=parser;...):"));
+        settingsDialog.add(tailFilesField);
+        settingsDialog.add(new JLabel("Copy Limit (bytes):"));
+        settingsDialog.add(copyMaxBytesField);
+        settingsDialog.add(new JLabel("Copy Keeps:"));
+        settingsDialog.add(copyKeepBox);
         JButton saveButton = new JButton("Save");
         saveButton.addActionListener(e -> {
             try {
                 int newMaxLogs = Integer.parseInt(maxLogsField.getText().trim());
                 if (newMaxLogs > 0) {
                     logProcessor.setMaxLogs(newMaxLogs);
-                    System.out.println("[SettingsDialog] Updated maxLogs to " + newMaxLogs);
+                    LOGGER.info("[SettingsDialog] Updated maxLogs to " + newMaxLogs);
+                }
+                int newMaxRefreshHz = Integer.parseInt(maxRefreshHzField.getText().trim());
+                if (newMaxRefreshHz > 0) {
+                    refreshScheduler.setMaxRefreshesPerSecond(newMaxRefreshHz);
+                    LOGGER.info("[SettingsDialog] Updated maxRefreshHz to " + newMaxRefreshHz);
+                }
+                int newClientQueueLimit = Integer.parseInt(clientQueueLimitField.getText().trim());
+                if (newClientQueueLimit > 0) {
+                    webSocketManager.setMaxQueuedFrames(newClientQueueLimit);
+                    LOGGER.info("[SettingsDialog] Updated clientQueueLimit to " + newClientQueueLimit);
+                }
+                webSocketManager.setSlowConsumerPolicy((FanOutEngine.SlowConsumerPolicy) slowClientPolicyBox.getSelectedItem());
+                webSocketManager.setHubCategories(SubscriptionIndex.parseCategoryList(hubCategoriesField.getText()));
+                int newReorderWindow = Integer.parseInt(reorderWindowField.getText().trim());
+                if (newReorderWindow >= 0) {
+                    webSocketManager.setReorderWindowMs(newReorderWindow);
+                    LOGGER.info("[SettingsDialog] Updated reorderWindowMs to " + newReorderWindow);
+                }
+                long newCopyMaxBytes = Long.parseLong(copyMaxBytesField.getText().trim());
+                if (newCopyMaxBytes > 0) {
+                    logDisplay.setCopyMaxBytes(newCopyMaxBytes);
+                    LOGGER.info("[SettingsDialog] Updated copyMaxBytes to " + newCopyMaxBytes);
+                }
+                logDisplay.setCopyKeep((LazyLogTransferable.Keep) copyKeepBox.getSelectedItem());
+                String newTailFiles = tailFilesField.getText().trim();
+                if (!newTailFiles.equals(fileTailer.getFiles())) {
+                    fileTailer.setFiles(newTailFiles);
+                    LOGGER.info("[SettingsDialog] Updated tailFiles to " + newTailFiles);
+                }
+                int newServerDecoders = Integer.parseInt(serverDecodersField.getText().trim());
+                boolean restartServer = false;
+                if (newServerDecoders > 0 && newServerDecoders != webSocketManager.getDecoderThreads()) {
+                    webSocketManager.setDecoderThreads(newServerDecoders);
+                    restartServer = webSocketManager.isUseLocalServer() && webSocketManager.isConnected();
+                    LOGGER.info("[SettingsDialog] Updated serverDecoders to " + newServerDecoders);
                 }
                 String newWsUrl = wsUrlField.getText().trim();
                 if (!newWsUrl.isEmpty()) {
                     webSocketManager.setWsUrl(newWsUrl);
-                    System.out.println("[SettingsDialog] Updated wsUrl to " + newWsUrl);
+                    LOGGER.info("[SettingsDialog] Updated wsUrl to " + newWsUrl);
                 }
                 boolean newUseLocalServer = localServerCheckBox.isSelected();
                 if (newUseLocalServer != webSocketManager.isUseLocalServer()) {
                     webSocketManager.setUseLocalServer(newUseLocalServer);
                     webSocketManager.toggleConnection();
                     webSocketManager.toggleConnection();
-                    System.out.println("[SettingsDialog] Updated useLocalServer to " + newUseLocalServer);
+                    LOGGER.info("[SettingsDialog] Updated useLocalServer to " + newUseLocalServer);
+                } else if (restartServer) {
+                    webSocketManager.toggleConnection(); // Decoder threads are fixed when the shared server starts, so only the last project to detach restarts it
+                    webSocketManager.toggleConnection();
                 }
                 saveSettings();
                 settingsDialog.dispose();
             } catch (NumberFormatException ex) {
-                Messages.showErrorDialog(project, "Invalid number for max logs", "Error");
-                System.out.println("[SettingsDialog] Failed to save settings: Invalid max logs, error=" + ex.getMessage());
+                Messages.showErrorDialog(project, "Invalid number for max logs, refresh rate, decoder threads, queue limit, reorder window or copy limit", "Error");
+                LOGGER.warning("[SettingsDialog] Failed to save settings: Invalid number, error=" + ex.getMessage());
+            } catch (IllegalArgumentException ex) {
+                Messages.showErrorDialog(project, "Invalid tail files: " + ex.getMessage(), "Error");
+                LOGGER.warning("[SettingsDialog] Failed to save settings: Invalid tail files, error=" + ex.getMessage());
             }
         });
         JButton cancelButton = new JButton("Cancel");
         cancelButton.addActionListener(e -> settingsDialog.dispose());
         settingsDialog.add(cancelButton);
         settingsDialog.add(saveButton);
-        settingsDialog.setSize(300, 200);
+        settingsDialog.setSize(380, 450);
         settingsDialog.setLocationRelativeTo(null);
         settingsDialog.setVisible(true);
     }
@@ -76,17 +155,27 @@ public class SettingsDialog {
         envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_LOGS", String.valueOf(logProcessor.getMaxLogs()));
         envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_WS_URL", webSocketManager.getWsUrl());
         envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_USE_LOCAL_SERVER", String.valueOf(webSocketManager.isUseLocalServer()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_REFRESH_HZ", String.valueOf(refreshScheduler.getMaxRefreshesPerSecond()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_SERVER_DECODERS", String.valueOf(webSocketManager.getDecoderThreads()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_CLIENT_QUEUE_LIMIT", String.valueOf(webSocketManager.getMaxQueuedFrames()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_SLOW_CLIENT_POLICY", webSocketManager.getSlowConsumerPolicy().name());
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_HUB_CATEGORIES", String.join(",", webSocketManager.getHubCategories()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_REORDER_WINDOW_MS", String.valueOf(webSocketManager.getReorderWindowMs()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_TAIL_FILES", fileTailer.getFiles());
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_COPY_MAX_BYTES", String.valueOf(logDisplay.getCopyMaxBytes()));
+        envProps.setProperty("COM_PICOEDGE_AI_TOOLS_LOGGER_COPY_KEEP", logDisplay.getCopyKeep().name());
         StringBuilder envContent = new StringBuilder();
         for (String key : envProps.stringPropertyNames()) {
-            envContent.append(key).append("=").append(envProps.getProperty(key)).append("\n");
+            // Properties.load reads backslashes as escapes, so regex parsers only survive a reload if they are doubled
+            envContent.append(key).append("=").append(envProps.getProperty(key).replace("\\", "\\\\")).append("\n");
         }
         if (envFile != null) {
             SwingUtilities.invokeLater(() -> {
                 try {
                     envFile.setBinaryContent(envContent.toString().getBytes(StandardCharsets.UTF_8));
-                    System.out.println("[SettingsDialog] Saved .env settings");
+                    LOGGER.info("[SettingsDialog] Saved .env settings");
                 } catch (IOException e) {
-                    System.out.println("[SettingsDialog] Failed to save .env settings: error=" + e.getMessage());
+                    LOGGER.warning("[SettingsDialog] Failed to save .env settings: error=" + e.getMessage());
                 }
             });
         }
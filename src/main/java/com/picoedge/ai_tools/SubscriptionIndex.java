@@ -0,0 +1,265 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Subscription filters of the log hub's subscribers (socket clients or project panes), compiled so each event is
+// matched once rather than per subscriber.
+// A filter is a level mask plus category prefixes to include (empty = all) and exclude; a prefix matches the category
+// itself and anything below it ("app.net" matches "app.net" and "app.net.http", not "app.network").
+// The compiled form maps each level bit to the subscriptions without category restriction plus a prefix -> subscriptions
+// table, so matching costs one lookup per dotted prefix of the event's category. It is rebuilt copy-on-write when a
+// subscription changes, which is rare next to events.
+public class SubscriptionIndex<K> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int LEVEL_BITS = 8;
+
+    private final ConcurrentHashMap<K, Subscription<K>> subscriptions = new ConcurrentHashMap<>();
+    private volatile Compiled<K> compiled = new Compiled<>(List.of());
+
+    public record Filter(int levelMask, List<String> categories, List<String> excludeCategories) {
+        public static final Filter ALL = new Filter(255, List.of(), List.of());
+
+        // Single-event form of match(), for replaying retained events to one subscriber
+        boolean accepts(int level, String category) {
+            if ((levelMask & level & 0xFF) == 0) {
+                return false;
+            }
+            if (!categories.isEmpty() && categories.stream().noneMatch(prefix -> matchesPrefix(category, prefix))) {
+                return false;
+            }
+            return !excludes(category);
+        }
+
+        boolean excludes(String category) {
+            for (String prefix : excludeCategories) {
+                if (matchesPrefix(category, prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // since is the last hub sequence number the client received before reconnecting, -1 for a fresh subscription
+    public record SubscribeRequest(Filter filter, long since) {
+    }
+
+    private record Subscription<K>(K key, Filter filter) {
+    }
+
+    // What the hub needs from a frame before forwarding it: a control action, or the event's level and category;
+    // timestamp is the producer's epoch millis, -1 when absent
+    record Peek(String action, int level, String category, long timestamp) {
+    }
+
+    // One event of a batch frame: its slice of the frame and what peek() would have read from it
+    record BatchElement(String message, Peek peek) {
+    }
+
+    private static final class Compiled<K> {
+        final List<List<Subscription<K>>> anyCategoryByLevel = new ArrayList<>(LEVEL_BITS);
+        final List<Map<String, List<Subscription<K>>>> byPrefixByLevel = new ArrayList<>(LEVEL_BITS);
+
+        Compiled(Collection<Subscription<K>> subscriptions) {
+            for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                anyCategoryByLevel.add(new ArrayList<>());
+                byPrefixByLevel.add(new HashMap<>());
+            }
+            for (Subscription<K> subscription : subscriptions) {
+                for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                    if ((subscription.filter().levelMask() & (1 << bit)) == 0) {
+                        continue;
+                    }
+                    if (subscription.filter().categories().isEmpty()) {
+                        anyCategoryByLevel.get(bit).add(subscription);
+                    } else {
+                        for (String prefix : subscription.filter().categories()) {
+                            byPrefixByLevel.get(bit).computeIfAbsent(prefix, k -> new ArrayList<>()).add(subscription);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Reads top-level "action", "level", "category" and "timestamp" without materializing the rest; null for non-JSON frames
+    static Peek peek(String message) {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return peekObject(parser);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Splits a batch frame (see LogProcessor.isBatch) into its event objects in one streaming pass, peeking each;
+    // non-object elements are dropped, and a malformed frame yields the elements before the error
+    static List<BatchElement> peekBatch(String frame) {
+        List<BatchElement> elements = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(frame)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    int start = (int) parser.getTokenLocation().getCharOffset();
+                    Peek peek = peekObject(parser);
+                    elements.add(new BatchElement(frame.substring(start, (int) parser.getCurrentLocation().getCharOffset()), peek));
+                } else {
+                    parser.skipChildren();
+                }
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            // Keep what was split before the error
+        }
+        return elements;
+    }
+
+    // Parser positioned on START_OBJECT; leaves it on the matching END_OBJECT
+    private static Peek peekObject(JsonParser parser) throws IOException {
+        String action = null;
+        int level = LogProcessor.LogLevel.Info.getValue(); // Same defaults as LogProcessor
+        String category = "general";
+        long timestamp = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("action".equals(field) && value == JsonToken.VALUE_STRING) {
+                action = parser.getText();
+            } else if ("level".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                level = parser.getIntValue();
+            } else if ("category".equals(field) && value == JsonToken.VALUE_STRING) {
+                category = parser.getText();
+            } else if ("timestamp".equals(field) && (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT)) {
+                timestamp = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Peek(action, level, category, timestamp);
+    }
+
+    // The filter and resume cursor of a {"action":"subscribe","filter":{...},"since":N} frame
+    public static SubscribeRequest parseSubscribe(String message) throws IOException {
+        JsonNode root = MAPPER.readTree(message);
+        JsonNode filter = root.path("filter");
+        return new SubscribeRequest(new Filter(filter.path("level").asInt(255), textList(filter.path("category")), textList(filter.path("excludeCategory"))),
+                root.path("since").canConvertToLong() ? root.path("since").asLong() : -1);
+    }
+
+    // The {"action":"subscribe",...} frame parseSubscribe reads; since -1 leaves it out
+    public static String subscribeFrame(Filter filter, String subId, String deviceId, long since) {
+        ObjectNode root = MAPPER.createObjectNode().put("action", "subscribe");
+        ObjectNode filterNode = root.putObject("filter").put("level", filter.levelMask());
+        filter.categories().forEach(filterNode.putArray("category")::add);
+        filter.excludeCategories().forEach(filterNode.putArray("excludeCategory")::add);
+        root.put("subId", subId).put("deviceId", deviceId);
+        if (since >= 0) {
+            root.put("since", since);
+        }
+        return root.toString();
+    }
+
+    // Replaces any previous filter of the subscriber
+    public void subscribe(K key, Filter filter) {
+        subscriptions.put(key, new Subscription<>(key, filter));
+        recompile();
+    }
+
+    public void unsubscribe(K key) {
+        if (subscriptions.remove(key) != null) {
+            recompile();
+        }
+    }
+
+    public boolean isSubscribed(K key) {
+        return subscriptions.containsKey(key);
+    }
+
+    // Subscribers whose filter accepts an event of this level and category
+    public Set<K> match(int level, String category) {
+        Compiled<K> current = compiled;
+        Set<K> matched = new LinkedHashSet<>();
+        int mask = level & 0xFF;
+        for (int bit = 0; bit < LEVEL_BITS; bit++) {
+            if ((mask & (1 << bit)) == 0) {
+                continue;
+            }
+            addUnlessExcluded(matched, current.anyCategoryByLevel.get(bit), category);
+            Map<String, List<Subscription<K>>> byPrefix = current.byPrefixByLevel.get(bit);
+            if (byPrefix.isEmpty()) {
+                continue;
+            }
+            int end = category.length();
+            while (end > 0) {
+                List<Subscription<K>> candidates = byPrefix.get(category.substring(0, end));
+                if (candidates != null) {
+                    addUnlessExcluded(matched, candidates, category);
+                }
+                end = category.lastIndexOf('.', end - 1);
+            }
+        }
+        return matched;
+    }
+
+    private static <K> void addUnlessExcluded(Set<K> matched, List<Subscription<K>> candidates, String category) {
+        for (Subscription<K> subscription : candidates) {
+            if (!subscription.filter().excludeCategories().isEmpty() && subscription.filter().excludes(category)) {
+                continue;
+            }
+            matched.add(subscription.key());
+        }
+    }
+
+    private synchronized void recompile() {
+        compiled = new Compiled<>(List.copyOf(subscriptions.values()));
+    }
+
+    static boolean matchesPrefix(String category, String prefix) {
+        return category.startsWith(prefix) && (category.length() == prefix.length() || category.charAt(prefix.length()) == '.');
+    }
+
+    // Comma-separated category prefixes, as stored in .env
+    public static List<String> parseCategoryList(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    private static List<String> textList(JsonNode node) {
+        List<String> values = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(value -> {
+                if (value.isTextual() && !value.asText().isEmpty()) {
+                    values.add(value.asText());
+                }
+            });
+        } else if (node.isTextual() && !node.asText().isEmpty()) {
+            values.add(node.asText());
+        }
+        return values;
+    }
+}
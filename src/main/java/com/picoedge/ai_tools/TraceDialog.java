@@ -0,0 +1,155 @@
+package com.picoedge.ai_tools;
+
+import com.picoedge.ai_tools.utils.LogPaneUtils;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// Waterfall of one correlation ID across sources and devices: one row per event in timestamp order, with its offset
+// from the first event, the delta from the previous one and a timeline scaled to the whole trace. A delta is a hop,
+// shown in bold, when the source or device changed. Built from LogProcessor.getTrace, so opening it costs the size of
+// the trace. Offsets marked ~ come from receive times because the producer sent no timestamp.
+public class TraceDialog {
+    private static final Logger LOGGER = Logger.getLogger(TraceDialog.class.getName());
+    private static final String[] COLUMNS = {"Offset", "Delta", "Source @ Device", "Level", "Category", "Description", "Timeline"};
+    private static final int TIMELINE_COLUMN = 6;
+    private final String correlationId;
+    private final List<LogProcessor.LogEvent> trace;
+    private final long[] offsets;
+    private final String[] lanes;
+    private final boolean[] hops;
+    private final long span;
+
+    public TraceDialog(String correlationId, List<LogProcessor.LogEvent> trace) {
+        this.correlationId = correlationId;
+        this.trace = trace;
+        this.offsets = new long[trace.size()];
+        this.lanes = new String[trace.size()];
+        this.hops = new boolean[trace.size()];
+        long first = trace.isEmpty() ? 0 : trace.get(0).timestamp;
+        for (int i = 0; i < trace.size(); i++) {
+            LogProcessor.LogEvent event = trace.get(i);
+            offsets[i] = event.timestamp - first;
+            lanes[i] = event.deviceId != null ? event.source + " @ " + event.deviceId : event.source;
+            hops[i] = i > 0 && !lanes[i].equals(lanes[i - 1]);
+        }
+        this.span = trace.isEmpty() ? 0 : offsets[trace.size() - 1];
+    }
+
+    public void show() {
+        JDialog dialog = new JDialog((Frame) null, "Trace " + correlationId, false);
+        JTable table = new JTable(new TraceModel());
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(20);
+        table.setDefaultRenderer(Object.class, new DeltaRenderer());
+        table.getColumnModel().getColumn(TIMELINE_COLUMN).setCellRenderer(new TimelineRenderer());
+        int[] widths = {80, 80, 180, 70, 140, 320, 240};
+        for (int i = 0; i < widths.length; i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(widths[i]);
+        }
+        dialog.setLayout(new BorderLayout());
+        dialog.add(new JLabel(" " + summary()), BorderLayout.NORTH);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        dialog.setSize(1100, Math.min(640, 90 + 20 * Math.max(trace.size(), 4)));
+        dialog.setLocationRelativeTo(null);
+        dialog.setVisible(true);
+        LOGGER.fine(() -> "[TraceDialog] Opened trace: correlationId=" + correlationId + ", events=" + trace.size());
+    }
+
+    private String summary() {
+        if (trace.isEmpty()) {
+            return "No stored events carry this correlation ID.";
+        }
+        Set<String> distinctLanes = new HashSet<>(List.of(lanes));
+        int hopCount = 0;
+        for (boolean hop : hops) {
+            hopCount += hop ? 1 : 0;
+        }
+        return String.format("%d events across %d sources/devices, %d hops, span %s", trace.size(), distinctLanes.size(), hopCount, millis(span));
+    }
+
+    private static String millis(long millis) {
+        return millis < 10_000 ? millis + " ms" : String.format("%.2f s", millis / 1000.0);
+    }
+
+    private final class TraceModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return trace.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            LogProcessor.LogEvent event = trace.get(row);
+            switch (column) {
+                case 0: return (event.producerTimestamp ? "+" : "~+") + millis(offsets[row]);
+                case 1: return row == 0 ? "" : "Δ " + millis(offsets[row] - offsets[row - 1]);
+                case 2: return lanes[row];
+                case 3: return LogProcessor.LogLevel.toString(event.level);
+                case 4: return event.category;
+                case 5: return event.title != null && !event.title.isEmpty() ? event.title + ": " + event.description : event.description;
+                default: return row;
+            }
+        }
+    }
+
+    // Bold deltas mark hops; lanes take the color the log view gives their source
+    private final class DeltaRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            component.setFont(column == 1 && hops[row] ? component.getFont().deriveFont(Font.BOLD) : table.getFont());
+            if (!isSelected) {
+                component.setForeground(column == 2 ? laneColor(row) : table.getForeground());
+            }
+            return component;
+        }
+    }
+
+    // A line from the previous event to this one and a dot at this one, both scaled to the span of the trace
+    private final class TimelineRenderer extends JComponent implements TableCellRenderer {
+        private int row;
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            this.row = row;
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g;
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int width = getWidth() - 12;
+            int middle = getHeight() / 2;
+            int x = 6 + (span == 0 ? 0 : (int) (width * offsets[row] / span));
+            if (row > 0) {
+                int previousX = 6 + (span == 0 ? 0 : (int) (width * offsets[row - 1] / span));
+                g2d.setColor(Color.GRAY);
+                g2d.drawLine(previousX, middle, x, middle);
+            }
+            g2d.setColor(laneColor(row));
+            g2d.fillOval(x - 4, middle - 4, 8, 8);
+        }
+    }
+
+    private Color laneColor(int row) {
+        return Color.decode(LogPaneUtils.getFieldColor(trace.get(row).source));
+    }
+}
@@ -0,0 +1,186 @@
+package com.picoedge.ai_tools;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Fire-and-forget ingest for chatty producers such as embedded test rigs: one JSON event object per UDP datagram on
+// loopback, with no connection or acknowledgement cost. A single thread drains the non-blocking channel through one
+// reused direct buffer and decoder, and every datagram that is waiting when it wakes goes to the hub as one NDJSON
+// batch of at most MAX_BATCH_EVENTS.
+// Loss is accepted and counted rather than prevented: producers may number their datagrams with "udpSeq", and gaps
+// in a sender's sequence are counted as lost. Malformed datagrams are counted, never logged one by one.
+public class UdpIngestListener {
+    private static final Logger LOGGER = Logger.getLogger(UdpIngestListener.class.getName());
+    static final int MAX_DATAGRAM_BYTES = 65507; // Largest UDP payload over IPv4
+    static final int MAX_BATCH_EVENTS = 512;
+    static final int RECEIVE_BUFFER_BYTES = 4 * 1024 * 1024; // Absorbs bursts while the thread is busy with a batch
+    static final int MAX_TRACKED_SENDERS = 1024; // Each producer socket is a sender; forgetting them only misses a gap
+    private static final String SEQ_FIELD = "\"udpSeq\":";
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ToIntFunction<String> ingest; // Ingests one NDJSON chunk, returning the number of new events
+    private final ByteBuffer datagram = ByteBuffer.allocateDirect(MAX_DATAGRAM_BYTES + 1); // One spare byte reveals truncation
+    private final CharBuffer decoded = CharBuffer.allocate(MAX_DATAGRAM_BYTES);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final StringBuilder batch = new StringBuilder(64 * 1024);
+    private final Map<SocketAddress, Long> lastSeqBySender = new HashMap<>(); // Listener thread only
+    private final Thread thread;
+    private volatile boolean running = true;
+    final LongAdder datagrams = new LongAdder();
+    final LongAdder accepted = new LongAdder();
+    final LongAdder rejected = new LongAdder(); // Not JSON, malformed, truncated, without id or a duplicate
+    final LongAdder lost = new LongAdder(); // Gaps in senders' udpSeq numbering
+
+    public UdpIngestListener(int port, ToIntFunction<String> ingest) throws IOException {
+        this.ingest = ingest;
+        this.channel = DatagramChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_BYTES);
+            channel.bind(new InetSocketAddress("localhost", port));
+            channel.configureBlocking(false);
+            this.selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "AI Logger UDP Ingest");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        LOGGER.info("[UdpIngestListener] Started: port=" + ((InetSocketAddress) channel.socket().getLocalSocketAddress()).getPort());
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+            selector.close();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[UdpIngestListener] Failed to close channel: error=" + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("[UdpIngestListener] Stopped: " + summary());
+    }
+
+    public String summary() {
+        return "datagrams=" + datagrams.sum() + ", accepted=" + accepted.sum() + ", rejected=" + rejected.sum() + ", lost=" + lost.sum();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (selector.select(500) == 0) {
+                    continue;
+                }
+                selector.selectedKeys().clear();
+                drain();
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "[UdpIngestListener] Receive failed: error=" + e.getMessage(), e);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "[UdpIngestListener] Ingest failed: error=" + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Receives until the channel is empty, handing the hub a batch every MAX_BATCH_EVENTS datagrams
+    private void drain() throws IOException {
+        int batched = 0;
+        SocketAddress sender;
+        while ((sender = channel.receive(datagram.clear())) != null) {
+            datagrams.increment();
+            String event = decode(datagram.flip());
+            if (event == null) {
+                rejected.increment();
+                continue;
+            }
+            countLoss(sender, event);
+            batch.append(event).append('\n');
+            if (++batched == MAX_BATCH_EVENTS) {
+                flush(batched);
+                batched = 0;
+            }
+        }
+        if (batched > 0) {
+            flush(batched);
+        }
+    }
+
+    private void flush(int batched) {
+        int fresh = ingest.applyAsInt(batch.toString());
+        accepted.add(fresh);
+        rejected.add(batched - fresh);
+        batch.setLength(0);
+    }
+
+    // The datagram as a one-line JSON object, or null when it was truncated, not UTF-8 or not an object
+    private String decode(ByteBuffer bytes) {
+        if (bytes.remaining() > MAX_DATAGRAM_BYTES) {
+            return null;
+        }
+        decoder.reset();
+        if (decoder.decode(bytes, decoded.clear(), true).isError() || decoder.flush(decoded).isError()) {
+            return null;
+        }
+        decoded.flip();
+        int start = 0;
+        while (start < decoded.length() && Character.isWhitespace(decoded.charAt(start))) {
+            start++;
+        }
+        if (start == decoded.length() || decoded.charAt(start) != '{') {
+            return null;
+        }
+        String event = decoded.toString();
+        // Raw newlines can only be JSON whitespace, so flattening them keeps a pretty-printed event on one NDJSON line
+        return event.indexOf('\n') < 0 ? event : event.replace('\n', ' ');
+    }
+
+    // A sender's udpSeq should rise by one per datagram; a smaller number means the producer restarted
+    private void countLoss(SocketAddress sender, String event) {
+        int at = event.indexOf(SEQ_FIELD);
+        if (at < 0) {
+            return;
+        }
+        long seq = 0;
+        int i = at + SEQ_FIELD.length();
+        int digits = 0;
+        for (; i < event.length() && event.charAt(i) >= '0' && event.charAt(i) <= '9'; i++, digits++) {
+            seq = seq * 10 + (event.charAt(i) - '0');
+        }
+        if (digits == 0) {
+            return;
+        }
+        if (lastSeqBySender.size() >= MAX_TRACKED_SENDERS && !lastSeqBySender.containsKey(sender)) {
+            lastSeqBySender.clear();
+        }
+        Long last = lastSeqBySender.put(sender, seq);
+        if (last != null && seq > last + 1) {
+            lost.add(seq - last - 1);
+        }
+    }
+}
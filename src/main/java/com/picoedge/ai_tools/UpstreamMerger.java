@@ -0,0 +1,190 @@
+package com.picoedge.ai_tools;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+// Merges the event streams of several upstream servers into one stream ordered by producer timestamp, so the pane's
+// incremental view interleaves environments the way the events happened rather than the way they arrived.
+// Each upstream gets a lane; lanes with queued events sit in a heap keyed by their head's timestamp (a k-way merge).
+// The earliest head is released once every connected lane has something queued, since then nothing earlier can
+// still arrive; otherwise it waits at most the reorder window, so a quiet or stalled upstream delays the others by
+// no more than that. With a single lane events pass straight through.
+public class UpstreamMerger {
+    public static final int DEFAULT_REORDER_WINDOW_MS = 250;
+    static final int MAX_QUEUED_PER_LANE = 10000; // A lane this far behind is released regardless of the window
+
+    private final ObjLongConsumer<String> sink;
+    private final List<Lane> lanes = new CopyOnWriteArrayList<>();
+    private final PriorityQueue<Lane> heads = new PriorityQueue<>(Comparator.comparingLong(Lane::headTimestamp)); // Guarded by this
+    private volatile long reorderWindowNanos = DEFAULT_REORDER_WINDOW_MS * 1_000_000L;
+
+    private record Pending(String message, long receivedNanos, long timestamp) {
+    }
+
+    // One upstream's queue plus its throughput and lag, as shown in the metrics strip
+    public final class Lane {
+        final String name;
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>(); // Guarded by the merger
+        private volatile boolean active = false;
+        final LongAdder messages = new LongAdder();
+        private volatile double lagMillis = -1; // Smoothed receive time minus producer timestamp
+        private long rateSampleNanos = System.nanoTime();
+        private long rateSampleCount = 0;
+        private double rate = 0;
+
+        private Lane(String name) {
+            this.name = name;
+        }
+
+        // Called on the upstream's socket thread; receivedNanos is the frame's System.nanoTime() receive stamp
+        public void offer(String message, long receivedNanos) {
+            boolean merging = lanes.size() > 1;
+            if (!LogProcessor.isBatch(message)) {
+                long timestamp = account(SubscriptionIndex.peek(message));
+                if (merging) {
+                    enqueue(message, receivedNanos, timestamp);
+                } else {
+                    sink.accept(message, receivedNanos);
+                }
+            } else if (merging) {
+                // Each event of a batch frame takes its own place in the merge
+                for (SubscriptionIndex.BatchElement element : SubscriptionIndex.peekBatch(message)) {
+                    enqueue(element.message(), receivedNanos, account(element.peek()));
+                }
+            } else {
+                messages.increment(); // Rate and lag are only shown when merging, so the batch is not split to count them
+                sink.accept(message, receivedNanos);
+            }
+        }
+
+        // Counts an event and folds its producer timestamp into the lag; returns the timestamp it is merged by
+        private long account(SubscriptionIndex.Peek peek) {
+            messages.increment();
+            long now = System.currentTimeMillis();
+            if (peek == null || peek.timestamp() < 0) {
+                return now;
+            }
+            double lag = now - peek.timestamp();
+            lagMillis = lagMillis < 0 ? lag : lagMillis * 0.9 + lag * 0.1;
+            return peek.timestamp();
+        }
+
+        private void enqueue(String message, long receivedNanos, long timestamp) {
+            synchronized (UpstreamMerger.this) {
+                boolean wasEmpty = queue.isEmpty();
+                queue.add(new Pending(message, receivedNanos, timestamp));
+                if (wasEmpty) {
+                    heads.add(this); // Appending behind an existing head leaves the lane's heap key unchanged
+                }
+                drainLocked(System.nanoTime());
+            }
+        }
+
+        // Only connected lanes hold back the merge; a disconnected one must not stall the others until the window ends
+        public void setActive(boolean active) {
+            this.active = active;
+            if (!active) {
+                drain();
+            }
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public int queued() {
+            synchronized (UpstreamMerger.this) {
+                return queue.size();
+            }
+        }
+
+        public double lagMillis() {
+            return lagMillis;
+        }
+
+        public synchronized double ratePerSecond() {
+            long now = System.nanoTime();
+            long elapsed = now - rateSampleNanos;
+            if (elapsed >= 1_000_000_000L) {
+                long count = messages.sum();
+                rate = (count - rateSampleCount) * 1e9 / elapsed;
+                rateSampleCount = count;
+                rateSampleNanos = now;
+            }
+            return rate;
+        }
+
+        private long headTimestamp() {
+            return queue.peekFirst().timestamp();
+        }
+    }
+
+    public UpstreamMerger(ObjLongConsumer<String> sink) {
+        this.sink = sink;
+    }
+
+    public Lane addLane(String name) {
+        Lane lane = new Lane(name);
+        lanes.add(lane);
+        return lane;
+    }
+
+    // Flushes whatever the lane still holds, so events received before the upstream was removed are not lost
+    public void removeLane(Lane lane) {
+        synchronized (this) {
+            lanes.remove(lane);
+            if (!lane.queue.isEmpty()) {
+                heads.remove(lane);
+                for (Pending pending : lane.queue) {
+                    sink.accept(pending.message(), pending.receivedNanos());
+                }
+                lane.queue.clear();
+            }
+        }
+        drain();
+    }
+
+    public void setReorderWindowMs(int reorderWindowMs) {
+        this.reorderWindowNanos = reorderWindowMs * 1_000_000L;
+    }
+
+    public int getReorderWindowMs() {
+        return (int) (reorderWindowNanos / 1_000_000L);
+    }
+
+    // Releases heads whose reorder window has passed; run periodically so a lone queued event does not wait for the next arrival
+    public synchronized void drain() {
+        drainLocked(System.nanoTime());
+    }
+
+    // Emits under the merger's lock so concurrent drains cannot reorder the output; the sink only enqueues into the store
+    private void drainLocked(long now) {
+        Lane lane;
+        while ((lane = heads.peek()) != null) {
+            Pending head = lane.queue.peekFirst();
+            if (!allActiveLanesQueued() && now - head.receivedNanos() < reorderWindowNanos && lane.queue.size() < MAX_QUEUED_PER_LANE) {
+                return;
+            }
+            heads.poll();
+            lane.queue.pollFirst();
+            if (!lane.queue.isEmpty()) {
+                heads.add(lane);
+            }
+            sink.accept(head.message(), head.receivedNanos());
+        }
+    }
+
+    private boolean allActiveLanesQueued() {
+        for (Lane lane : lanes) {
+            if (lane.active && lane.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
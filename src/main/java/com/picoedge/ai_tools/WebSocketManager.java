@@ -4,322 +4,612 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import org.java_websocket.WebSocket;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 import org.java_websocket.handshake.ServerHandshake;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 import java.io.IOException;
 import java.net.*;
-import java.util.Arrays;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class WebSocketManager {
+    private static final Logger LOGGER = Logger.getLogger(WebSocketManager.class.getName());
     private final Project project;
-    private final WebSocketServerImpl server;
-    private WebSocketClient client;
-    private final AtomicBoolean isConnected = new AtomicBoolean(false);
-    private String wsUrl = "ws://localhost:1065";
+    private final LogHubService.Subscriber hubSubscriber; // Receives local-server events from the shared LogHubService
+    private volatile SubscriptionIndex.Filter hubFilter = SubscriptionIndex.Filter.ALL; // Local hub and remote upstreams alike
+    private int decoderThreads = WebSocketServerImpl.DEFAULT_DECODER_THREADS;
+    private int maxQueuedFrames = FanOutEngine.DEFAULT_MAX_QUEUED_FRAMES;
+    private FanOutEngine.SlowConsumerPolicy slowConsumerPolicy = FanOutEngine.SlowConsumerPolicy.DROP;
+    private final AtomicBoolean hubAttached = new AtomicBoolean(false);
+    private String wsUrl = "ws://localhost:1065"; // One or more upstream servers, comma-separated
+    private volatile List<Upstream> upstreams; // Rebuilt when wsUrl changes, under connectionLock
+    private final UpstreamMerger merger; // Orders events from several upstreams by producer timestamp before messageHandler
+    private static final int MERGE_TICK_MS = 20;
     private boolean useLocalServer = false;
     private final String deviceId;
     private String deviceIdFilter = "";
     private String correlationIdFilter = "";
-    private int reconnectAttempts = 0;
-    private String wsSubId;
+    private String wsSubId; // Dedup session shared by all upstreams; null until the first upstream of a connect opens
     private final int maxReconnectAttempts = 5;
     private final int baseReconnectDelay = 1000;
     private final int maxReconnectDelay = 10000;
-    private Timer messageTimeoutTimer;
-    private final int messageTimeoutMs = 30000; // 30 seconds timeout for no messages
+    private final int pingIntervalMs = 10000;
+    private final int pongTimeoutMs = 30000; // No pong for this long means the connection is dead, however quiet the stream
+    // Reconnects, health checks and pings run here rather than on Swing timers, so an unreachable server never
+    // blocks the EDT; callbacks take connectionLock only around state changes, never around network waits
+    private final ScheduledExecutorService scheduler;
     private final LogProcessor logProcessor; // Reference to LogProcessor for clearing processed IDs
-    private final ConcurrentHashMap<String, WebSocketClient> activeClients = new ConcurrentHashMap<>(); // Track active clients by deviceId
     private final Object connectionLock = new Object(); // Lock for connection initialization
 
+    // Built on first use, on the connection thread: creating an HttpClient takes long enough to notice on the EDT
+    private static final class Http {
+        static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
     public static class WebSocketServerImpl extends WebSocketServer {
+        public static final int DEFAULT_DECODER_THREADS = Runtime.getRuntime().availableProcessors();
         private final ConcurrentHashMap<String, WebSocket> activeConnections = new ConcurrentHashMap<>();
-        private final Consumer<String> messageHandler;
+        private final ObjLongConsumer<String> messageHandler; // Receives each frame with its System.nanoTime() receive stamp
+        private final FanOutEngine fanOut = new FanOutEngine(this);
+        private final SubscriptionIndex<WebSocket> subscriptions = new SubscriptionIndex<>(); // Connections that never subscribed receive everything
+        // Forwarded events for resuming clients; also the lock that orders forwarding against subscribe-time replay
+        private final ReplayRing replay = new ReplayRing(ReplayRing.DEFAULT_CAPACITY);
+        private final ConcurrentHashMap<WebSocket, Long> liveFromSeq = new ConcurrentHashMap<>(); // First seq each connection got live
+
+        public WebSocketServerImpl(int port, ObjLongConsumer<String> messageHandler) {
+            this(port, DEFAULT_DECODER_THREADS, messageHandler);
+        }
 
-        public WebSocketServerImpl(int port, Consumer<String> messageHandler) {
-            super(new InetSocketAddress("localhost", port));
+        // decoderThreads is the number of worker threads that decode incoming frames and run onMessage
+        public WebSocketServerImpl(int port, int decoderThreads, ObjLongConsumer<String> messageHandler) {
+            super(new InetSocketAddress("localhost", port), decoderThreads);
             this.messageHandler = messageHandler;
+            setTcpNoDelay(true); // Forwarded frames are small and latency-sensitive
         }
 
         @Override
         public void onOpen(WebSocket conn, ClientHandshake handshake) {
             String subId = UUID.randomUUID().toString();
-            activeConnections.put(subId, conn);
-            System.out.println("[WebSocketManager] WebSocket client connected: subId=" + subId + ", remoteAddress=" + conn.getRemoteSocketAddress());
+            synchronized (replay) {
+                activeConnections.put(subId, conn);
+                liveFromSeq.put(conn, replay.nextSeq());
+            }
+            fanOut.register(conn);
+            LOGGER.info("[WebSocketManager] WebSocket client connected: subId=" + subId + ", remoteAddress=" + conn.getRemoteSocketAddress());
             try {
                 conn.send("{\"action\":\"subscribe\",\"filter\":{\"level\":255,\"category\":[],\"excludeCategory\":[]},\"subId\":\"" + subId + "\"}");
-                System.out.println("[WebSocketManager] Sent subscription message for subId: " + subId);
+                LOGGER.fine(() -> "[WebSocketManager] Sent subscription message for subId: " + subId);
             } catch (Exception e) {
-                System.out.println("[WebSocketManager] Failed to send subscription message for subId: " + subId + ", error=" + e.getMessage());
+                LOGGER.warning("[WebSocketManager] Failed to send subscription message for subId: " + subId + ", error=" + e.getMessage());
             }
         }
 
         @Override
         public void onClose(WebSocket conn, int code, String reason, boolean remote) {
             activeConnections.values().remove(conn);
-            System.out.println("[WebSocketManager] WebSocket client disconnected, code: " + code + ", reason: " + reason + ", remoteAddress=" + conn.getRemoteSocketAddress());
+            fanOut.unregister(conn);
+            subscriptions.unsubscribe(conn);
+            liveFromSeq.remove(conn);
+            LOGGER.info("[WebSocketManager] WebSocket client disconnected, code: " + code + ", reason: " + reason + ", remoteAddress=" + conn.getRemoteSocketAddress());
         }
 
         @Override
         public void onMessage(WebSocket conn, String message) {
-            System.out.println("[WebSocketManager] Received WebSocket message: " + message + ", from: " + conn.getRemoteSocketAddress());
-            messageHandler.accept(message);
-            activeConnections.values().forEach(client -> {
-                if (client.isOpen() && client != conn) {
-                    try {
-                        client.send(message);
-                        System.out.println("[WebSocketManager] Forwarded message to client: " + client.getRemoteSocketAddress());
-                    } catch (Exception e) {
-                        System.out.println("[WebSocketManager] Failed to forward message to client: " + client.getRemoteSocketAddress() + ", error: " + e.getMessage());
+            long receivedNanos = System.nanoTime();
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.finest("[WebSocketManager] Received WebSocket message: " + message + ", from: " + conn.getRemoteSocketAddress());
+            }
+            if (LogProcessor.isBatch(message)) {
+                // The handler decodes the whole batch at once; clients receive its events one per frame, since each
+                // is filtered against their subscription and stamped with its own sequence number
+                messageHandler.accept(message, receivedNanos);
+                for (SubscriptionIndex.BatchElement element : SubscriptionIndex.peekBatch(message)) {
+                    if (element.peek().action() == null) {
+                        forward(element.message(), conn, element.peek());
+                    }
+                }
+                return;
+            }
+            SubscriptionIndex.Peek peek = SubscriptionIndex.peek(message);
+            if (peek != null && peek.action() != null) {
+                handleControlMessage(conn, peek.action(), message);
+                return;
+            }
+            messageHandler.accept(message, receivedNanos);
+            forward(message, conn, peek);
+        }
+
+        // Subscription frames configure what the sending connection receives; they are neither logged nor forwarded
+        private void handleControlMessage(WebSocket conn, String action, String message) {
+            if ("subscribe".equals(action)) {
+                try {
+                    SubscriptionIndex.SubscribeRequest request = SubscriptionIndex.parseSubscribe(message);
+                    SubscriptionIndex.Filter filter = request.filter();
+                    int replayed = 0;
+                    synchronized (replay) {
+                        subscriptions.subscribe(conn, filter);
+                        if (request.since() >= 0) {
+                            replayed = resume(conn, request.since(), filter);
+                        }
                     }
+                    LOGGER.info("[WebSocketManager] Client subscribed: remoteAddress=" + conn.getRemoteSocketAddress() + ", level=" + filter.levelMask()
+                            + ", category=" + filter.categories() + ", excludeCategory=" + filter.excludeCategories() + ", since=" + request.since() + ", replayed=" + replayed);
+                } catch (IOException e) {
+                    LOGGER.warning("[WebSocketManager] Ignoring malformed subscription: remoteAddress=" + conn.getRemoteSocketAddress() + ", error=" + e.getMessage());
+                }
+            } else if ("unsubscribe".equals(action)) {
+                subscriptions.unsubscribe(conn);
+                LOGGER.info("[WebSocketManager] Client unsubscribed: remoteAddress=" + conn.getRemoteSocketAddress());
+            } else {
+                LOGGER.fine(() -> "[WebSocketManager] Ignoring unknown action: " + action + ", from: " + conn.getRemoteSocketAddress());
+            }
+        }
+
+        // Caller holds the replay lock. Sends the retained events after since that the connection missed: everything
+        // from liveFromSeq on was already broadcast to it live, since unsubscribed connections receive all events.
+        private int resume(WebSocket conn, long since, SubscriptionIndex.Filter filter) {
+            long liveFrom = liveFromSeq.getOrDefault(conn, replay.nextSeq());
+            if (since + 1 < replay.oldestSeq()) {
+                LOGGER.warning("[WebSocketManager] Replay buffer overrun, client missed events: remoteAddress=" + conn.getRemoteSocketAddress()
+                        + ", since=" + since + ", oldestRetained=" + replay.oldestSeq() + ", lost=" + (replay.oldestSeq() - since - 1));
+            }
+            int replayed = 0;
+            List<WebSocket> target = List.of(conn);
+            for (ReplayRing.Entry entry : replay.between(since, liveFrom)) {
+                if (filter.accepts(entry.level(), entry.category())) {
+                    replayed += fanOut.broadcast(entry.message(), null, target);
                 }
-            });
+            }
+            return replayed;
+        }
+
+        // Sends an event to every connection whose subscription accepts it, plus those that never subscribed;
+        // from (may be null) is the connection it arrived on. Returns the number of clients it was queued for.
+        public int forward(String message, WebSocket from) {
+            return forward(message, from, SubscriptionIndex.peek(message));
+        }
+
+        // With the frame already peeked or parsed, e.g. one event of a batch
+        int forward(String message, WebSocket from, SubscriptionIndex.Peek peek) {
+            if (peek == null) {
+                return broadcast(message, from, activeConnections.values()); // Not a JSON object, so neither stamped nor filtered
+            }
+            synchronized (replay) {
+                String stamped = replay.append(message, peek.level(), peek.category());
+                List<WebSocket> matched = new ArrayList<>(subscriptions.match(peek.level(), peek.category()));
+                int subscribed = matched.size();
+                for (WebSocket conn : activeConnections.values()) {
+                    if (!subscriptions.isSubscribed(conn)) {
+                        matched.add(conn);
+                    }
+                }
+                fanOut.recordFiltered(activeConnections.size() - matched.size());
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    LOGGER.finest("[WebSocketManager] Subscription match: level=" + peek.level() + ", category=" + peek.category() + ", subscribed=" + subscribed + ", targets=" + matched.size());
+                }
+                return broadcast(stamped, from, matched);
+            }
+        }
+
+        private int broadcast(String message, WebSocket from, Collection<WebSocket> targets) {
+            int forwarded = fanOut.broadcast(message, from, targets);
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.finest("[WebSocketManager] Forwarded message to " + forwarded + " clients");
+            }
+            return forwarded;
         }
 
         @Override
         public void onError(WebSocket conn, Exception ex) {
-            System.out.println("[WebSocketManager] WebSocket server error: " + ex.getMessage() + (conn != null ? ", client: " + conn.getRemoteSocketAddress() : ""));
+            LOGGER.log(Level.WARNING, "[WebSocketManager] WebSocket server error: " + ex.getMessage() + (conn != null ? ", client: " + conn.getRemoteSocketAddress() : ""), ex);
             if (conn != null) {
                 activeConnections.values().remove(conn);
+                fanOut.unregister(conn);
+                subscriptions.unsubscribe(conn);
+                liveFromSeq.remove(conn);
             }
         }
 
         @Override
         public void onStart() {
-            System.out.println("[WebSocketManager] WebSocket server started on port 1065");
+            LOGGER.info("[WebSocketManager] WebSocket server started on port 1065");
         }
 
         public void stopServer() {
             try {
                 stop();
-                System.out.println("[WebSocketManager] WebSocket server stopped");
+                LOGGER.info("[WebSocketManager] WebSocket server stopped: " + fanOut.summary());
             } catch (InterruptedException e) {
-                System.out.println("[WebSocketManager] Failed to stop server: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to stop server: error=" + e.getMessage(), e);
             }
         }
 
         public ConcurrentHashMap<String, WebSocket> getActiveConnections() {
             return activeConnections;
         }
+
+        public FanOutEngine getFanOut() {
+            return fanOut;
+        }
+    }
+
+    // One remote log server: its own client, connection state, backoff and resume cursor. Fields other than the
+    // volatile ones are guarded by connectionLock.
+    private class Upstream {
+        final String url;
+        final UpstreamMerger.Lane lane;
+        WebSocketClientImpl client;
+        int reconnectAttempts = 0;
+        boolean stopped = true; // Explicitly disconnected: closes must not schedule a reconnect
+        volatile boolean connected = false;
+        volatile long lastSeq = -1; // Highest hub sequence number received, sent as "since" when resubscribing after a drop
+
+        Upstream(String url) {
+            this.url = url;
+            this.lane = merger.addLane(url);
+        }
+
+        // Explicit connect: resets backoff and the resume cursor, then connects once the health check passes
+        void start(boolean reportUnavailable) {
+            stopped = false;
+            reconnectAttempts = 0;
+            lastSeq = -1; // Reconnects resume; an explicit connect starts from live events
+            checkServerAvailability(url).thenAcceptAsync(available -> {
+                synchronized (connectionLock) {
+                    if (stopped || useLocalServer || connected) {
+                        return; // Mode changed or disconnected while the health check ran
+                    }
+                    if (!available) {
+                        if (reportUnavailable) {
+                            SwingUtilities.invokeLater(() -> Messages.showErrorDialog(project, "WebSocket server is not available at " + url, "Error"));
+                        }
+                        LOGGER.warning("[WebSocketManager] Server not available at " + url + ", scheduling retry: deviceId=" + deviceId);
+                        retry();
+                        return;
+                    }
+                    try {
+                        open();
+                    } catch (Exception e) {
+                        LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to create or connect WebSocket client: deviceId=" + deviceId + ", fullWsUrl=" + url + "/ws?deviceId=" + deviceId + ", error=" + e.getMessage(), e);
+                        retry();
+                    }
+                }
+            }, scheduler);
+        }
+
+        // Caller holds connectionLock. Replaces any previous client; connect() returns without waiting for the handshake.
+        void open() throws URISyntaxException {
+            closeClient();
+            String fullWsUrl = url + "/ws?deviceId=" + deviceId;
+            LOGGER.fine(() -> "[WebSocketManager] Creating WebSocket client: fullWsUrl=" + fullWsUrl + ", deviceId=" + deviceId);
+            client = new WebSocketClientImpl(new URI(fullWsUrl), this);
+            client.connect();
+            LOGGER.info("[WebSocketManager] Initiated WebSocket client connection to " + fullWsUrl + ", deviceId=" + deviceId);
+        }
+
+        // Caller holds connectionLock
+        void retry() {
+            if (stopped) {
+                return;
+            }
+            reconnectAttempts++;
+            if (reconnectAttempts >= maxReconnectAttempts) {
+                LOGGER.warning("[WebSocketManager] Max reconnect attempts (" + maxReconnectAttempts + ") reached: url=" + url + ", deviceId=" + deviceId);
+                return;
+            }
+            long delay = Math.min(baseReconnectDelay * (1L << (reconnectAttempts - 1)) + (long) (Math.random() * 100), maxReconnectDelay);
+            LOGGER.info("[WebSocketManager] Scheduling reconnection in " + delay + "ms (attempt " + reconnectAttempts + "/" + maxReconnectAttempts + "): url=" + url + ", deviceId=" + deviceId);
+            if (scheduler.isShutdown()) {
+                return;
+            }
+            scheduler.schedule(() -> {
+                synchronized (connectionLock) {
+                    if (stopped || connected || useLocalServer) {
+                        LOGGER.fine(() -> "[WebSocketManager] Reconnection skipped: connected=" + connected + ", useLocalServer=" + useLocalServer + ", url=" + url);
+                        return;
+                    }
+                }
+                checkServerAvailability(url).thenAcceptAsync(available -> {
+                    synchronized (connectionLock) {
+                        if (stopped || connected || useLocalServer) {
+                            return;
+                        }
+                        if (!available) {
+                            LOGGER.warning("[WebSocketManager] Reconnection aborted: server not available at " + url + ", deviceId=" + deviceId);
+                            retry(); // Keep backing off until maxReconnectAttempts
+                            return;
+                        }
+                        try {
+                            open();
+                            LOGGER.info("[WebSocketManager] Reconnection attempt " + reconnectAttempts + " initiated: url=" + url + ", deviceId=" + deviceId);
+                        } catch (Exception ex) {
+                            LOGGER.log(Level.WARNING, "[WebSocketManager] Reconnection attempt failed: deviceId=" + deviceId + ", fullWsUrl=" + url + "/ws?deviceId=" + deviceId + ", error=" + ex.getMessage(), ex);
+                        }
+                    }
+                }, scheduler);
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        // Caller holds connectionLock
+        void stop() {
+            stopped = true;
+            closeClient();
+            connected = false;
+            lane.setActive(false);
+        }
+
+        private void closeClient() {
+            if (client != null && !client.isClosed()) {
+                try {
+                    client.close();
+                    LOGGER.fine(() -> "[WebSocketManager] Closed WebSocket client: url=" + url + ", deviceId=" + deviceId);
+                } catch (Exception e) {
+                    LOGGER.warning("[WebSocketManager] Failed to close WebSocket client: url=" + url + ", deviceId=" + deviceId + ", error=" + e.getMessage());
+                }
+            }
+            client = null;
+        }
+    }
+
+    // Per-upstream state for the metrics strip; lagMillis is -1 until an event with a producer timestamp arrived
+    public record UpstreamStatus(String url, boolean connected, double ratePerSecond, double lagMillis, int queued, int reconnectAttempts) {
     }
 
     private class WebSocketClientImpl extends WebSocketClient {
-        private final String deviceId;
-        private final Consumer<String> messageHandler;
-        private Timer pingTimer;
+        private final Upstream upstream;
+        private ScheduledFuture<?> pingTask;
+        private volatile long lastPongNanos;
         private boolean isSubscribed = false;
 
-        public WebSocketClientImpl(URI serverUri, String deviceId, Consumer<String> messageHandler) {
+        public WebSocketClientImpl(URI serverUri, Upstream upstream) {
             super(serverUri);
-            this.deviceId = deviceId;
-            this.messageHandler = messageHandler;
-            System.out.println("[WebSocketManager] Initializing WebSocket client: deviceId=" + deviceId + ", uri=" + serverUri);
+            this.upstream = upstream;
+            setConnectionLostTimeout(0); // Liveness is checked by startPingTask on the manager's scheduler
+            LOGGER.fine(() -> "[WebSocketManager] Initializing WebSocket client: deviceId=" + deviceId + ", uri=" + serverUri);
         }
 
         @Override
         public void onOpen(ServerHandshake handshakedata) {
-            System.out.println("[WebSocketManager] WebSocket client connected: deviceId=" + deviceId + ", uri=" + getURI() + ", status=" + handshakedata.getHttpStatus() + ", extensions=" + handshakedata.getFieldValue("Sec-WebSocket-Extensions"));
+            LOGGER.info("[WebSocketManager] WebSocket client connected: deviceId=" + deviceId + ", uri=" + getURI() + ", status=" + handshakedata.getHttpStatus() + ", extensions=" + handshakedata.getFieldValue("Sec-WebSocket-Extensions"));
             synchronized (connectionLock) {
-                isConnected.set(true);
-                reconnectAttempts = 0;
-                wsSubId = UUID.randomUUID().toString();
-                logProcessor.clearProcessedEventIds(wsSubId); // Clear deduplication for new subscription
-                logProcessor.setCurrentSubId(wsSubId); // Set current subscription ID
-                activeClients.put(deviceId, this); // Track this client
-                System.out.println("[WebSocketManager] Active clients: " + activeClients.size() + ", deviceId=" + deviceId);
+                if (upstream.client != this) {
+                    close(); // Superseded while the handshake was in flight
+                    return;
+                }
+                upstream.connected = true;
+                upstream.reconnectAttempts = 0;
+                upstream.lane.setActive(true);
+                if (wsSubId == null) {
+                    wsSubId = UUID.randomUUID().toString();
+                    logProcessor.clearProcessedEventIds(wsSubId); // Clear deduplication for new subscription
+                    logProcessor.setCurrentSubId(wsSubId); // Set current subscription ID
+                } // Otherwise keep the session's dedup, shared by all upstreams and kept across reconnects
                 sendSubscriptionMessage();
             }
-            startPingTimer();
-            startMessageTimeoutTimer();
+            startPingTask();
         }
 
         private void sendSubscriptionMessage() {
             if (isSubscribed) {
-                System.out.println("[WebSocketManager] Already subscribed, skipping: subId=" + wsSubId + ", deviceId=" + deviceId);
+                LOGGER.fine(() -> "[WebSocketManager] Already subscribed, skipping: subId=" + wsSubId + ", deviceId=" + deviceId);
                 return;
             }
             try {
-                String subscriptionMessage = "{\"action\":\"subscribe\",\"filter\":{\"level\":255,\"category\":[\"test.websocket\"],\"excludeCategory\":[\"logger.server\",\"logger.server.forward\"]},\"subId\":\"" + wsSubId + "\",\"deviceId\":\"" + deviceId + "\"}";
+                // The same filter the pane takes from the local hub, all categories unless HUB_CATEGORIES narrows it
+                String subscriptionMessage = SubscriptionIndex.subscribeFrame(hubFilter, wsSubId, deviceId, upstream.lastSeq);
                 send(subscriptionMessage);
                 isSubscribed = true;
-                System.out.println("[WebSocketManager] Sent WebSocket subscription: subId=" + wsSubId + ", deviceId=" + deviceId + ", message=" + subscriptionMessage);
+                LOGGER.fine(() -> "[WebSocketManager] Sent WebSocket subscription: subId=" + wsSubId + ", deviceId=" + deviceId + ", message=" + subscriptionMessage);
             } catch (Exception e) {
                 isSubscribed = false;
-                System.out.println("[WebSocketManager] Failed to send subscription message: subId=" + wsSubId + ", deviceId=" + deviceId + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to send subscription message: subId=" + wsSubId + ", deviceId=" + deviceId + ", error=" + e.getMessage(), e);
             }
         }
 
-        private void startPingTimer() {
-            pingTimer = new Timer(10000, ee -> {
+        // Replaces the filter of a live subscription; no since, as the connection has received everything so far
+        void resubscribe() {
+            if (!isSubscribed) {
+                return; // The subscription sent on open will carry the current filter
+            }
+            try {
+                send(SubscriptionIndex.subscribeFrame(hubFilter, wsSubId, deviceId, -1));
+                LOGGER.info("[WebSocketManager] Resubscribed: url=" + upstream.url + ", category=" + hubFilter.categories());
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to resubscribe: url=" + upstream.url + ", error=" + e.getMessage(), e);
+            }
+        }
+
+        // Pings every pingIntervalMs and drops the connection when no pong arrived within pongTimeoutMs; a quiet
+        // stream that still answers pings stays connected
+        private void startPingTask() {
+            lastPongNanos = System.nanoTime();
+            pingTask = scheduler.scheduleWithFixedDelay(() -> {
+                long silentMs = (System.nanoTime() - lastPongNanos) / 1_000_000;
+                if (silentMs > pongTimeoutMs) {
+                    LOGGER.warning("[WebSocketManager] No pong for " + silentMs + "ms, dropping connection: url=" + upstream.url + ", deviceId=" + deviceId);
+                    closeConnection(CloseFrame.ABNORMAL_CLOSE, "Pong timeout");
+                    return;
+                }
                 try {
                     sendPing();
-                    System.out.println("[WebSocketManager] Sent ping to server: deviceId=" + deviceId);
+                    LOGGER.fine(() -> "[WebSocketManager] Sent ping to server: url=" + upstream.url + ", deviceId=" + deviceId);
                 } catch (Exception ex) {
-                    System.out.println("[WebSocketManager] Failed to send ping: deviceId=" + deviceId + ", error=" + ex.getMessage());
+                    LOGGER.warning("[WebSocketManager] Failed to send ping: url=" + upstream.url + ", deviceId=" + deviceId + ", error=" + ex.getMessage());
                 }
-            });
-            pingTimer.start();
+            }, pingIntervalMs, pingIntervalMs, TimeUnit.MILLISECONDS);
         }
 
-        private void startMessageTimeoutTimer() {
-            if (messageTimeoutTimer != null) {
-                messageTimeoutTimer.stop();
+        private void stopPingTask() {
+            if (pingTask != null) {
+                pingTask.cancel(false);
+                pingTask = null;
             }
-            messageTimeoutTimer = new Timer(messageTimeoutMs, e -> {
-                System.out.println("[WebSocketManager] No messages received for " + messageTimeoutMs + "ms, forcing reconnection: deviceId=" + deviceId);
-                reconnect();
-            });
-            messageTimeoutTimer.setRepeats(false);
-            messageTimeoutTimer.start();
+        }
+
+        @Override
+        public void onWebsocketPong(WebSocket conn, Framedata f) {
+            lastPongNanos = System.nanoTime();
         }
 
         @Override
         public void onMessage(String message) {
-            System.out.println("[WebSocketManager] Received WebSocket message: deviceId=" + deviceId + ", subId=" + wsSubId + ", message=" + message);
-            startMessageTimeoutTimer(); // Reset timeout on message receipt
+            long receivedNanos = System.nanoTime();
+            if (LOGGER.isLoggable(Level.FINEST)) {
+                LOGGER.finest("[WebSocketManager] Received WebSocket message: url=" + upstream.url + ", subId=" + wsSubId + ", message=" + message);
+            }
+            long seq = ReplayRing.seqOf(message);
+            if (seq > upstream.lastSeq) {
+                upstream.lastSeq = seq;
+            }
             try {
-                messageHandler.accept(message);
+                upstream.lane.offer(message, receivedNanos);
             } catch (Exception e) {
-                System.out.println("[WebSocketManager] Error processing message: deviceId=" + deviceId + ", subId=" + wsSubId + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                LOGGER.log(Level.WARNING, "[WebSocketManager] Error processing message: url=" + upstream.url + ", subId=" + wsSubId + ", error=" + e.getMessage(), e);
             }
         }
 
         @Override
         public void onClose(int code, String reason, boolean remote) {
-            System.out.println("[WebSocketManager] WebSocket client disconnected: deviceId=" + deviceId + ", subId=" + wsSubId + ", code=" + code + ", reason=" + reason + ", remote=" + remote + ", uri=" + getURI());
+            LOGGER.info("[WebSocketManager] WebSocket client disconnected: deviceId=" + deviceId + ", subId=" + wsSubId + ", code=" + code + ", reason=" + reason + ", remote=" + remote + ", uri=" + getURI());
             synchronized (connectionLock) {
-                if (pingTimer != null) {
-                    pingTimer.stop();
-                    pingTimer = null;
-                }
-                if (messageTimeoutTimer != null) {
-                    messageTimeoutTimer.stop();
-                    messageTimeoutTimer = null;
-                }
-                isConnected.set(false);
+                stopPingTask();
                 isSubscribed = false;
-                activeClients.remove(deviceId, this); // Remove from active clients
-                System.out.println("[WebSocketManager] Removed client from active clients: deviceId=" + deviceId + ", remaining=" + activeClients.size());
-                if (reconnectAttempts < maxReconnectAttempts && code != 1001) {
-                    retryWebSocket();
+                if (upstream.client != this) {
+                    return; // A replaced client; its upstream has already moved on
+                }
+                upstream.connected = false;
+                upstream.lane.setActive(false);
+                if (upstream.reconnectAttempts < maxReconnectAttempts && code != 1001) {
+                    upstream.retry();
                 } else {
-                    System.out.println("[WebSocketManager] Max reconnect attempts reached or intentional close: deviceId=" + deviceId);
+                    LOGGER.warning("[WebSocketManager] Max reconnect attempts reached or intentional close: url=" + upstream.url + ", deviceId=" + deviceId);
                 }
             }
         }
 
         @Override
         public void onError(Exception ex) {
-            System.out.println("[WebSocketManager] WebSocket client error: deviceId=" + deviceId + ", subId=" + wsSubId + ", error=" + ex.getMessage() + ", stack=" + Arrays.toString(ex.getStackTrace()) + ", uri=" + getURI());
-            Messages.showErrorDialog(project, "WebSocket client error: " + ex.getMessage(), "Error");
+            LOGGER.log(Level.WARNING, "[WebSocketManager] WebSocket client error: deviceId=" + deviceId + ", subId=" + wsSubId + ", error=" + ex.getMessage() + ", uri=" + getURI(), ex);
+            SwingUtilities.invokeLater(() -> Messages.showErrorDialog(project, "WebSocket client error (" + upstream.url + "): " + ex.getMessage(), "Error"));
             synchronized (connectionLock) {
-                isConnected.set(false);
                 isSubscribed = false;
-                if (pingTimer != null) {
-                    pingTimer.stop();
-                    pingTimer = null;
-                }
-                if (messageTimeoutTimer != null) {
-                    messageTimeoutTimer.stop();
-                    messageTimeoutTimer = null;
+                stopPingTask();
+                if (upstream.client != this) {
+                    return;
                 }
-                activeClients.remove(deviceId, this); // Remove from active clients
-                System.out.println("[WebSocketManager] Removed client from active clients due to error: deviceId=" + deviceId + ", remaining=" + activeClients.size());
-                if (reconnectAttempts < maxReconnectAttempts) {
-                    retryWebSocket();
+                upstream.connected = false;
+                upstream.lane.setActive(false);
+                if (upstream.reconnectAttempts < maxReconnectAttempts) {
+                    upstream.retry();
                 } else {
-                    System.out.println("[WebSocketManager] Max reconnect attempts reached: deviceId=" + deviceId);
+                    LOGGER.warning("[WebSocketManager] Max reconnect attempts reached: url=" + upstream.url + ", deviceId=" + deviceId);
                 }
             }
         }
-
-        // Resubscribe after reconnection to ensure filter is applied
-        public void resubscribe() {
-            isSubscribed = false;
-            sendSubscriptionMessage();
-        }
     }
 
-    public WebSocketManager(Project project, Consumer<String> messageHandler, Runnable connectionStatusChanged, LogProcessor logProcessor) {
+    public WebSocketManager(Project project, ObjLongConsumer<String> messageHandler, LogHubService.Subscriber hubSubscriber,
+                            Runnable connectionStatusChanged, LogProcessor logProcessor) {
         this.project = project;
         this.deviceId = UUID.randomUUID().toString();
-        this.server = new WebSocketServerImpl(1065, messageHandler);
+        this.hubSubscriber = hubSubscriber;
         this.logProcessor = logProcessor;
+        this.merger = new UpstreamMerger(messageHandler);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AI Logger Connection: " + project.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(merger::drain, MERGE_TICK_MS, MERGE_TICK_MS, TimeUnit.MILLISECONDS);
+        this.upstreams = createUpstreams(wsUrl);
         initializeConnection();
     }
 
     private void initializeConnection() {
         synchronized (connectionLock) {
-            System.out.println("[WebSocketManager] Initializing connection: useLocalServer=" + useLocalServer + ", deviceId=" + deviceId + ", wsUrl=" + wsUrl);
+            LOGGER.fine(() -> "[WebSocketManager] Initializing connection: useLocalServer=" + useLocalServer + ", deviceId=" + deviceId + ", wsUrl=" + wsUrl);
             if (useLocalServer) {
-                if (isPortAvailable(1065)) {
-                    try {
-                        server.start();
-                        isConnected.set(true);
-                        System.out.println("[WebSocketManager] Started local WebSocket server on port 1065");
-                    } catch (Exception e) {
-                        System.out.println("[WebSocketManager] Failed to start local WebSocket server: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                try {
+                    if (attachToHub()) {
+                        hubAttached.set(true);
+                    } else {
+                        Messages.showErrorDialog(project, "Port 1065 is already in use. Please free the port or connect to an existing server.", "Error");
                     }
-                } else {
-                    Messages.showErrorDialog(project, "Port 1065 is already in use. Please free the port or connect to an existing server.", "Error");
-                    System.out.println("[WebSocketManager] Failed to start local server: Port 1065 in use");
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to start local WebSocket server: error=" + e.getMessage(), e);
                 }
             } else {
-                if (checkServerAvailability()) {
-                    try {
-                        // Close all existing clients for this deviceId
-                        closeExistingClient();
-                        String fullWsUrl = wsUrl + "/ws?deviceId=" + deviceId;
-                        System.out.println("[WebSocketManager] Creating WebSocket client: fullWsUrl=" + fullWsUrl + ", deviceId=" + deviceId);
-                        client = new WebSocketClientImpl(new URI(fullWsUrl), deviceId, server.messageHandler);
-                        activeClients.put(deviceId, client); // Track new client
-                        System.out.println("[WebSocketManager] Active clients after creation: " + activeClients.size() + ", deviceId=" + deviceId);
-                        client.connect();
-                        System.out.println("[WebSocketManager] Initiated WebSocket client connection to " + fullWsUrl + ", deviceId=" + deviceId);
-                    } catch (Exception e) {
-                        System.out.println("[WebSocketManager] Failed to create or connect WebSocket client: deviceId=" + deviceId + ", fullWsUrl=" + wsUrl + "/ws?deviceId=" + deviceId + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
-                        retryWebSocket();
-                    }
-                } else {
-                    System.out.println("[WebSocketManager] Server not available at " + wsUrl + ", scheduling retry: deviceId=" + deviceId);
-                    retryWebSocket();
-                }
+                connectUpstreams(false);
             }
         }
     }
 
-    private void closeExistingClient() {
-        synchronized (connectionLock) {
-            WebSocketClient existingClient = activeClients.remove(deviceId);
-            if (existingClient != null && !existingClient.isClosed()) {
-                try {
-                    existingClient.close();
-                    System.out.println("[WebSocketManager] Closed existing WebSocket client: deviceId=" + deviceId);
-                } catch (Exception e) {
-                    System.out.println("[WebSocketManager] Failed to close existing WebSocket client: deviceId=" + deviceId + ", error=" + e.getMessage());
-                }
-            }
-            if (client != null && !client.isClosed()) {
-                try {
-                    client.close();
-                    System.out.println("[WebSocketManager] Closed current WebSocket client: deviceId=" + deviceId);
-                } catch (Exception e) {
-                    System.out.println("[WebSocketManager] Failed to close current WebSocket client: deviceId=" + deviceId + ", error=" + e.getMessage());
-                }
-                client = null;
+    // Caller holds connectionLock. Starts a new session: fresh dedup and resume cursors, every upstream connecting.
+    private void connectUpstreams(boolean reportUnavailable) {
+        wsSubId = null;
+        for (Upstream upstream : upstreams) {
+            upstream.start(reportUnavailable);
+        }
+    }
+
+    // COM_PICOEDGE_AI_TOOLS_LOGGER_WS_URL may list several servers separated by commas
+    private List<Upstream> createUpstreams(String wsUrls) {
+        List<Upstream> created = new ArrayList<>();
+        for (String url : wsUrls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                created.add(new Upstream(url.trim()));
             }
-            System.out.println("[WebSocketManager] Active clients after close: " + activeClients.size() + ", deviceId=" + deviceId);
         }
+        return List.copyOf(created);
     }
 
+    // Joins the application's shared local server, starting it if no other project has
+    private boolean attachToHub() {
+        LogHubService hub = LogHubService.getInstance();
+        hub.configure(decoderThreads, maxQueuedFrames, slowConsumerPolicy);
+        boolean attached = hub.attach(hubSubscriber, hubFilter);
+        if (attached) {
+            LOGGER.info("[WebSocketManager] Attached to shared local server on port " + LogHubService.PORT + ": deviceId=" + deviceId);
+        }
+        return attached;
+    }
+
+    // Replacing the list disconnects upstreams that are no longer in it; if any upstream was connected, the new list connects
     public void setWsUrl(String wsUrl) {
         synchronized (connectionLock) {
+            if (wsUrl.equals(this.wsUrl)) {
+                return;
+            }
+            boolean reconnect = !useLocalServer && isConnected();
+            for (Upstream upstream : upstreams) {
+                upstream.stop();
+                merger.removeLane(upstream.lane);
+            }
             this.wsUrl = wsUrl;
+            upstreams = createUpstreams(wsUrl);
+            LOGGER.info("[WebSocketManager] Upstreams set: " + upstreams.size() + ", wsUrl=" + wsUrl);
+            if (reconnect) {
+                connectUpstreams(false);
+            }
         }
     }
 
@@ -327,12 +617,35 @@ public class WebSocketManager {
         return wsUrl;
     }
 
+    public void setReorderWindowMs(int reorderWindowMs) {
+        merger.setReorderWindowMs(reorderWindowMs);
+    }
+
+    public int getReorderWindowMs() {
+        return merger.getReorderWindowMs();
+    }
+
+    public List<UpstreamStatus> getUpstreamStatuses() {
+        if (useLocalServer) {
+            return List.of();
+        }
+        List<UpstreamStatus> statuses = new ArrayList<>(upstreams.size());
+        for (Upstream upstream : upstreams) {
+            statuses.add(new UpstreamStatus(upstream.url, upstream.connected, upstream.lane.ratePerSecond(), upstream.lane.lagMillis(),
+                    upstream.lane.queued(), upstream.reconnectAttempts));
+        }
+        return statuses;
+    }
+
     public void setUseLocalServer(boolean useLocalServer) {
         synchronized (connectionLock) {
             if (this.useLocalServer != useLocalServer) {
-                this.useLocalServer = useLocalServer;
-                if (isConnected.get()) {
+                boolean wasConnected = isConnected();
+                if (wasConnected) {
                     toggleConnection();
+                }
+                this.useLocalServer = useLocalServer;
+                if (wasConnected) {
                     initializeConnection();
                 }
             }
@@ -343,6 +656,60 @@ public class WebSocketManager {
         return useLocalServer;
     }
 
+    // Takes effect the next time the shared local server starts, i.e. once every project has detached
+    public void setDecoderThreads(int decoderThreads) {
+        synchronized (connectionLock) {
+            this.decoderThreads = decoderThreads;
+        }
+    }
+
+    public int getDecoderThreads() {
+        return decoderThreads;
+    }
+
+    public void setMaxQueuedFrames(int maxQueuedFrames) {
+        synchronized (connectionLock) {
+            this.maxQueuedFrames = maxQueuedFrames;
+            if (useLocalServer && isConnected()) {
+                LogHubService.getInstance().configure(decoderThreads, maxQueuedFrames, slowConsumerPolicy);
+            }
+        }
+    }
+
+    public int getMaxQueuedFrames() {
+        return maxQueuedFrames;
+    }
+
+    public void setSlowConsumerPolicy(FanOutEngine.SlowConsumerPolicy slowConsumerPolicy) {
+        synchronized (connectionLock) {
+            this.slowConsumerPolicy = slowConsumerPolicy;
+            if (useLocalServer && isConnected()) {
+                LogHubService.getInstance().configure(decoderThreads, maxQueuedFrames, slowConsumerPolicy);
+            }
+        }
+    }
+
+    public FanOutEngine.SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    // Category prefixes this project takes from the shared local server and from remote upstreams; empty takes everything
+    public void setHubCategories(List<String> categories) {
+        synchronized (connectionLock) {
+            hubFilter = new SubscriptionIndex.Filter(SubscriptionIndex.Filter.ALL.levelMask(), List.copyOf(categories), List.of());
+            LogHubService.getInstance().resubscribe(hubSubscriber, hubFilter);
+            for (Upstream upstream : upstreams) {
+                if (upstream.connected && upstream.client != null) {
+                    upstream.client.resubscribe();
+                }
+            }
+        }
+    }
+
+    public List<String> getHubCategories() {
+        return hubFilter.categories();
+    }
+
     public void setDeviceIdFilter(String deviceIdFilter) {
         this.deviceIdFilter = deviceIdFilter;
     }
@@ -359,16 +726,38 @@ public class WebSocketManager {
         return correlationIdFilter;
     }
 
+    // Local mode: attached to the shared server. Remote mode: at least one upstream is connected.
     public boolean isConnected() {
-        return isConnected.get();
+        if (useLocalServer) {
+            return hubAttached.get();
+        }
+        for (Upstream upstream : upstreams) {
+            if (upstream.connected) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    // The shared local server, or null while no project has it running
     public WebSocketServerImpl getServer() {
-        return server;
+        return LogHubService.getInstance().getServer();
     }
 
+    // Delivers a locally authored event through the shared server; -1 when it is not running
+    public int publishLocal(String message) {
+        return LogHubService.getInstance().publish(message);
+    }
+
+    // The first connected upstream's client, used to send new entries; null when none is connected
     public WebSocketClient getClient() {
-        return client;
+        for (Upstream upstream : upstreams) {
+            WebSocketClientImpl client = upstream.client;
+            if (upstream.connected && client != null) {
+                return client;
+            }
+        }
+        return null;
     }
 
     public String getDeviceId() {
@@ -377,129 +766,81 @@ public class WebSocketManager {
 
     public void toggleConnection() {
         synchronized (connectionLock) {
-            System.out.println("[WebSocketManager] Attempting to toggle connection: useLocalServer=" + useLocalServer + ", deviceId=" + deviceId + ", wsUrl=" + wsUrl);
-            if (isConnected.get()) {
+            LOGGER.fine(() -> "[WebSocketManager] Attempting to toggle connection: useLocalServer=" + useLocalServer + ", deviceId=" + deviceId + ", wsUrl=" + wsUrl);
+            if (isConnected()) {
                 if (useLocalServer) {
                     try {
-                        server.stopServer();
-                        System.out.println("[WebSocketManager] Stopped local WebSocket server");
+                        LogHubService.getInstance().detach(hubSubscriber);
+                        LOGGER.info("[WebSocketManager] Detached from shared local server: deviceId=" + deviceId);
                     } catch (Exception e) {
-                        System.out.println("[WebSocketManager] Failed to stop local WebSocket server: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                        LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to detach from local WebSocket server: error=" + e.getMessage(), e);
                     }
+                    hubAttached.set(false);
                 } else {
-                    closeExistingClient();
+                    upstreams.forEach(Upstream::stop);
                 }
-                isConnected.set(false);
             } else {
-                if (!useLocalServer && !checkServerAvailability()) {
-                    Messages.showErrorDialog(project, "WebSocket server is not available at " + wsUrl, "Error");
-                    System.out.println("[WebSocketManager] Connection aborted: server not available at " + wsUrl);
-                    return;
-                }
                 if (useLocalServer) {
-                    if (!isPortAvailable(1065)) {
-                        Messages.showErrorDialog(project,
-                                "Port 1065 is already in use. Please free the port or connect to an existing server.",
-                                "Error");
-                        System.out.println("[WebSocketManager] Failed to start local server: Port 1065 in use");
-                        return;
-                    }
                     try {
-                        server.start();
-                        System.out.println("[WebSocketManager] Started local WebSocket server on port 1065");
+                        if (!attachToHub()) {
+                            Messages.showErrorDialog(project,
+                                    "Port 1065 is already in use. Please free the port or connect to an existing server.",
+                                    "Error");
+                            return;
+                        }
+                        hubAttached.set(true);
                     } catch (Exception e) {
                         Messages.showErrorDialog(project, "Failed to start WebSocket server: " + e.getMessage(), "Error");
-                        System.out.println("[WebSocketManager] Failed to start local WebSocket server: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
+                        LOGGER.log(Level.WARNING, "[WebSocketManager] Failed to start local WebSocket server: error=" + e.getMessage(), e);
                     }
                 } else {
-                    try {
-                        closeExistingClient();
-                        String fullWsUrl = wsUrl + "/ws?deviceId=" + deviceId;
-                        System.out.println("[WebSocketManager] Creating WebSocket client: fullWsUrl=" + fullWsUrl + ", deviceId=" + deviceId);
-                        client = new WebSocketClientImpl(new URI(fullWsUrl), deviceId, server.messageHandler);
-                        activeClients.put(deviceId, client); // Track new client
-                        System.out.println("[WebSocketManager] Active clients after creation: " + activeClients.size() + ", deviceId=" + deviceId);
-                        client.connect();
-                        System.out.println("[WebSocketManager] Initiated WebSocket client connection to " + fullWsUrl + ", deviceId=" + deviceId);
-                    } catch (Exception e) {
-                        Messages.showErrorDialog(project, "Failed to connect to WebSocket server: " + e.getMessage(), "Error");
-                        System.out.println("[WebSocketManager] Failed to create or connect WebSocket client: deviceId=" + deviceId + ", fullWsUrl=" + wsUrl + "/ws?deviceId=" + deviceId + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
-                    }
+                    connectUpstreams(true);
                 }
             }
         }
     }
 
-    private boolean isPortAvailable(int port) {
-        try (ServerSocket socket = new ServerSocket(port)) {
-            socket.setReuseAddress(true);
-            System.out.println("[WebSocketManager] Port " + port + " is available");
-            return true;
-        } catch (IOException e) {
-            System.out.println("[WebSocketManager] Port " + port + " is not available: error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
-            return false;
-        }
+    // Starts on the scheduler and completes with false on any error or a non-200 status; never blocks the caller
+    // GET /health on the server's own port; a local hub in another IDE serves it on the next port up instead, since
+    // its WebSocket port cannot answer plain HTTP, so that is tried when the first check fails
+    private CompletableFuture<Boolean> checkServerAvailability(String url) {
+        String httpUrl = url.replace("ws://", "http://").replace("wss://", "https://");
+        return checkHealth(httpUrl + "/health").thenCompose(available -> {
+            String hubHealthUrl = available ? null : hubHealthUrl(httpUrl);
+            return hubHealthUrl == null ? CompletableFuture.completedFuture(available) : checkHealth(hubHealthUrl);
+        });
     }
 
-    private boolean checkServerAvailability() {
+    // The local hub's HTTP health URL for a server on the hub's WebSocket port, otherwise null
+    private static String hubHealthUrl(String httpUrl) {
         try {
-            String httpUrl = wsUrl.replace("ws://", "http://").replace("wss://", "https://") + "/health";
-            URI uri = URI.create(httpUrl);
-            URL url = uri.toURL();
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(2000);
-            conn.setReadTimeout(2000);
-            int responseCode = conn.getResponseCode();
-            System.out.println("[WebSocketManager] Server health check: url=" + httpUrl + ", responseCode=" + responseCode);
-            return responseCode == 200;
-        } catch (IOException e) {
-            System.out.println("[WebSocketManager] Server health check failed: url=" + wsUrl + ", error=" + e.getMessage() + ", stack=" + Arrays.toString(e.getStackTrace()));
-            return false;
-        }
-    }
-
-    private void retryWebSocket() {
+            URI uri = new URI(httpUrl);
+            return uri.getPort() == LogHubService.PORT ? uri.getScheme() + "://" + uri.getHost() + ":" + LogHubService.HTTP_PORT + "/health" : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private CompletableFuture<Boolean> checkHealth(String httpUrl) {
+        return CompletableFuture.supplyAsync(() -> HttpRequest.newBuilder(URI.create(httpUrl)).timeout(Duration.ofSeconds(2)).GET().build(), scheduler)
+                .thenCompose(request -> Http.CLIENT.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .thenApply(response -> {
+                    LOGGER.fine(() -> "[WebSocketManager] Server health check: url=" + httpUrl + ", responseCode=" + response.statusCode());
+                    return response.statusCode() == 200;
+                })
+                .exceptionally(e -> {
+                    LOGGER.log(Level.FINE, "[WebSocketManager] Server health check failed: url=" + httpUrl + ", error=" + e.getMessage(), e);
+                    return false;
+                });
+    }
+
+    // Called when the project closes: leaves the shared local server and closes every upstream
+    public void dispose() {
+        scheduler.shutdownNow();
         synchronized (connectionLock) {
-            reconnectAttempts++;
-            if (reconnectAttempts >= maxReconnectAttempts) {
-                System.out.println("[WebSocketManager] Max reconnect attempts (" + maxReconnectAttempts + ") reached: deviceId=" + deviceId);
-                return;
-            }
-            long delay = Math.min(baseReconnectDelay * (1L << (reconnectAttempts - 1)) + (long) (Math.random() * 100), maxReconnectDelay);
-            System.out.println("[WebSocketManager] Scheduling reconnection in " + delay + "ms (attempt " + reconnectAttempts + "/" + maxReconnectAttempts + "): deviceId=" + deviceId);
-            Timer timer = new Timer((int) delay, e -> {
-                synchronized (connectionLock) {
-                    if (!isConnected.get() && !useLocalServer) {
-                        if (!checkServerAvailability()) {
-                            System.out.println("[WebSocketManager] Reconnection aborted: server not available at " + wsUrl + ", deviceId=" + deviceId);
-                            return;
-                        }
-                        try {
-                            // Ensure only one client is active
-                            closeExistingClient();
-                            String fullWsUrl = wsUrl + "/ws?deviceId=" + deviceId;
-                            System.out.println("[WebSocketManager] Attempting reconnection: deviceId=" + deviceId + ", fullWsUrl=" + fullWsUrl);
-                            client = new WebSocketClientImpl(new URI(fullWsUrl), deviceId, server.messageHandler);
-                            activeClients.put(deviceId, client); // Track new client
-                            System.out.println("[WebSocketManager] Active clients after reconnection: " + activeClients.size() + ", deviceId=" + deviceId);
-                            client.connect();
-                            System.out.println("[WebSocketManager] Reconnection attempt " + reconnectAttempts + " initiated to " + fullWsUrl + ", deviceId=" + deviceId);
-                            // Resubscribe after reconnection
-                            if (client instanceof WebSocketClientImpl) {
-                                ((WebSocketClientImpl) client).resubscribe();
-                            }
-                        } catch (Exception ex) {
-                            System.out.println("[WebSocketManager] Reconnection attempt failed: deviceId=" + deviceId + ", fullWsUrl=" + wsUrl + "/ws?deviceId=" + deviceId + ", error=" + ex.getMessage() + ", stack=" + Arrays.toString(ex.getStackTrace()));
-                        }
-                    } else {
-                        System.out.println("[WebSocketManager] Reconnection skipped: isConnected=" + isConnected.get() + ", useLocalServer=" + useLocalServer + ", deviceId=" + deviceId);
-                    }
-                }
-            });
-            timer.setRepeats(false);
-            timer.start();
-            System.out.println("[WebSocketManager] Reconnection timer started: delay=" + delay + ", deviceId=" + deviceId);
+            LogHubService.getInstance().detach(hubSubscriber);
+            hubAttached.set(false);
+            upstreams.forEach(Upstream::stop);
         }
     }
-}
\ No newline at end of file
+}
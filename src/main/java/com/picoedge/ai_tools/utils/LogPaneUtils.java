@@ -1,8 +1,11 @@
 package com.picoedge.ai_tools.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class LogPaneUtils {
+    private static final Logger LOGGER = Logger.getLogger(LogPaneUtils.class.getName());
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     public static int stringToHash(String value) {
@@ -23,10 +26,39 @@ public class LogPaneUtils {
         int green = ((hash >> 7) & 0x7F) + base;
         int blue = ((hash >> 14) & 0x7F) + base;
         String color = String.format("#%02X%02X%02X", red, green, blue);
-        System.out.println("[LogPaneUtils] Generated color for value \"" + value + "\": " + color);
+        if (LOGGER.isLoggable(Level.FINEST)) {
+            LOGGER.finest("[LogPaneUtils] Generated color for value \"" + value + "\": " + color);
+        }
         return color;
     }
 
+    // Single-pass equivalent of replace("<", "&lt;").replace(">", "&gt;"); null maps to ""
+    public static String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        int length = value.length();
+        int i = 0;
+        while (i < length && value.charAt(i) != '<' && value.charAt(i) != '>') {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+        StringBuilder escaped = new StringBuilder(length + 16).append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '<') {
+                escaped.append("&lt;");
+            } else if (c == '>') {
+                escaped.append("&gt;");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
     public static String formatData(Object data) {
         try {
             return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(data).replace("<", "&lt;").replace(">", "&gt;");
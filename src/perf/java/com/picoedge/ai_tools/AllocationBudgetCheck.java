@@ -0,0 +1,301 @@
+package com.picoedge.ai_tools;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.swing.SwingUtilities;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+// Allocation budget for the ingest -> filter -> render -> document path, run by ./gradlew check.
+// Drives --events messages through a LogProcessor and a real (headless) LogPaneUI the way LogPane does, under a JFR
+// recording: ingest batches, LogViewRefresher.refresh and every EDT dispatch are committed as custom events carrying the
+// thread's allocated bytes, so bytes per event are read back from the .jfr file and compared with
+// allocation-budget.properties. Our filter/render step is budgeted apart from the HTMLDocument update, whose Swing
+// cost would otherwise hide a regression in it. EDT time per refresh depends on the machine, so it is only reported
+// unless --enforce-edt-time is given (./gradlew checkEdtTime). On failure the allocation samples name the top frames.
+public class AllocationBudgetCheck {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static volatile int currentRefresh = -1; // Tags EDT dispatches with the refresh they belong to
+
+    @Name("com.picoedge.ai_tools.IngestBatch")
+    @Label("Ingest Batch")
+    @Category("AI Logger")
+    static class IngestBatchEvent extends Event {
+        @Label("Messages")
+        int messages;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    @Name("com.picoedge.ai_tools.RenderStep")
+    @Label("Filter and Render")
+    @Category("AI Logger")
+    static class RenderStepEvent extends Event {
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    @Name("com.picoedge.ai_tools.EdtDispatch")
+    @Label("EDT Dispatch")
+    @Category("AI Logger")
+    static class EdtDispatchEvent extends Event {
+        @Label("Refresh")
+        int refresh;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    // Times every event the EDT dispatches, including the document updates LogPaneUI queues with invokeLater
+    private static class RecordingEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            EdtDispatchEvent dispatch = new EdtDispatchEvent();
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            dispatch.begin();
+            super.dispatchEvent(event);
+            dispatch.end();
+            dispatch.refresh = currentRefresh;
+            dispatch.allocatedBytes = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            dispatch.commit();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || !arg.startsWith("--")) {
+                printUsage();
+                return;
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        Properties budget = new Properties();
+        try (InputStream in = AllocationBudgetCheck.class.getResourceAsStream("/allocation-budget.properties")) {
+            budget.load(in);
+        }
+        int events = Integer.parseInt(options.getOrDefault("events", budget.getProperty("events")));
+        int batch = Integer.parseInt(options.getOrDefault("batch", budget.getProperty("batch")));
+        int maxLogs = Integer.parseInt(options.getOrDefault("max-logs", budget.getProperty("maxLogs")));
+        List<String> messages = loadMessages(options.get("capture"), events);
+        Path jfrFile = Path.of(options.getOrDefault("jfr", "build/reports/allocation-budget/allocation-budget.jfr"));
+        Files.createDirectories(jfrFile.toAbsolutePath().getParent());
+
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new RecordingEventQueue());
+        drive(messages, batch, maxLogs); // Warm-up pass so the measured one runs JIT-compiled code
+        try (Recording recording = new Recording()) {
+            recording.enable(IngestBatchEvent.class);
+            recording.enable(RenderStepEvent.class);
+            recording.enable(EdtDispatchEvent.class);
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "500/s").withStackTrace();
+            recording.enable("jdk.GarbageCollection");
+            recording.start();
+            drive(messages, batch, maxLogs);
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+
+        Result result = analyze(jfrFile, messages.size());
+        boolean enforceEdtTime = options.containsKey("enforce-edt-time");
+        System.out.println(result.report(budget, enforceEdtTime));
+        List<String> violations = result.violations(budget, enforceEdtTime);
+        if (!violations.isEmpty()) {
+            System.out.println("Allocation budget exceeded:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.out.println("Top allocating frames (sampled weight):");
+            topAllocationSites(jfrFile, 15).forEach(site -> System.out.println("  " + site));
+            System.out.println("Recording: " + jfrFile.toAbsolutePath());
+            System.exit(1);
+        }
+        System.exit(0); // The pushed event queue keeps the EDT alive
+    }
+
+    private static void printUsage() {
+        System.out.println(String.join("\n",
+                "Options (defaults come from allocation-budget.properties):",
+                "  --events=N        messages to drive through the pipeline",
+                "  --batch=N         messages ingested between two refreshes",
+                "  --max-logs=N      store capacity; keep it below --events so eviction and trimming are measured",
+                "  --capture=FILE    use the messages of a session capture instead of LoadGenerator events",
+                "  --enforce-edt-time  also fail when EDT time per refresh exceeds refresh.edtMillis.p50/p99",
+                "  --jfr=FILE        where to keep the recording (build/reports/allocation-budget/ by default)"));
+    }
+
+    private static List<String> loadMessages(String capture, int events) throws IOException {
+        List<String> messages = new ArrayList<>(events);
+        if (capture != null) {
+            SessionReplayer.replay(Path.of(capture), 0, (message, receivedNanos) -> messages.add(message), () -> messages.size() >= events);
+            return messages;
+        }
+        LoadGenerator generator = new LoadGenerator(Map.of());
+        for (int i = 0; i < events; i++) {
+            messages.add(generator.nextMessage());
+        }
+        return messages;
+    }
+
+    // One pass of LogPane's steady state: ingest a batch on this thread, then LogViewRefresher.refresh on the EDT
+    // (a full render first, then filter and render the new events and trim evicted ones) followed by the document
+    // update it queues
+    private static void drive(List<String> messages, int batch, int maxLogs) throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        LogProcessor logProcessor = new LogProcessor(() -> { }, metrics);
+        logProcessor.setMaxLogs(maxLogs);
+        LogFilter logFilter = new LogFilter();
+        LogDisplay logDisplay = new LogDisplay();
+        LogPaneUI[] ui = new LogPaneUI[1];
+        SwingUtilities.invokeAndWait(() -> ui[0] = new LogPaneUI(url -> { }, () -> { }, () -> { }, () -> { }, () -> { },
+                () -> { }, () -> { }, () -> { }, () -> { }, () -> { }, () -> { }, () -> { }, () -> { }, id -> { }, id -> { },
+                logFilter, metrics, () -> { }, speed -> { }, () -> { }, () -> { }, List::of,
+                count -> logProcessor.getRateHistogram(count, null), millis -> { }));
+        LogViewRefresher viewRefresher = new LogViewRefresher(logProcessor, logFilter, logDisplay, ui[0], metrics);
+        int refresh = 0;
+        for (int from = 0; from < messages.size(); from += batch) {
+            int to = Math.min(messages.size(), from + batch);
+            IngestBatchEvent ingest = new IngestBatchEvent();
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            ingest.begin();
+            for (int i = from; i < to; i++) {
+                logProcessor.processMessage(messages.get(i), System.nanoTime(), category -> { }, source -> { });
+            }
+            ingest.end();
+            ingest.messages = to - from;
+            ingest.allocatedBytes = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            ingest.commit();
+
+            currentRefresh = refresh++;
+            SwingUtilities.invokeAndWait(() -> {
+                RenderStepEvent render = new RenderStepEvent();
+                long renderAllocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+                render.begin();
+                viewRefresher.refresh(); // LogPane's own refresh; the document update it queues runs in the next dispatch
+                render.end();
+                render.allocatedBytes = THREADS.getCurrentThreadAllocatedBytes() - renderAllocatedBefore;
+                render.commit();
+            });
+            SwingUtilities.invokeAndWait(() -> { }); // Drains the queued document update into this refresh
+            currentRefresh = -1;
+        }
+    }
+
+    private record Result(int events, long ingestBytes, long renderBytes, long edtBytes, List<Long> refreshNanos) {
+        double ingestBytesPerEvent() {
+            return ingestBytes / (double) events;
+        }
+
+        double renderBytesPerEvent() {
+            return renderBytes / (double) events;
+        }
+
+        // Everything else the EDT allocated during a refresh: LogPaneUI's document update, almost all HTMLDocument
+        double documentBytesPerEvent() {
+            return (edtBytes - renderBytes) / (double) events;
+        }
+
+        double refreshMillis(double percentile) {
+            List<Long> sorted = new ArrayList<>(refreshNanos);
+            sorted.sort(null);
+            int index = Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * percentile / 100.0) - 1);
+            return sorted.isEmpty() ? 0 : sorted.get(Math.max(0, index)) / 1e6;
+        }
+
+        List<String> violations(Properties budget, boolean enforceEdtTime) {
+            List<String> violations = new ArrayList<>();
+            check(violations, "ingest.bytesPerEvent", ingestBytesPerEvent(), budget);
+            check(violations, "render.bytesPerEvent", renderBytesPerEvent(), budget);
+            check(violations, "document.bytesPerEvent", documentBytesPerEvent(), budget);
+            if (enforceEdtTime) {
+                check(violations, "refresh.edtMillis.p50", refreshMillis(50), budget);
+                check(violations, "refresh.edtMillis.p99", refreshMillis(99), budget);
+            }
+            return violations;
+        }
+
+        private static void check(List<String> violations, String key, double actual, Properties budget) {
+            double limit = Double.parseDouble(budget.getProperty(key));
+            if (actual > limit) {
+                violations.add(String.format("%s = %.1f, budget %.1f", key, actual, limit));
+            }
+        }
+
+        String report(Properties budget, boolean enforceEdtTime) {
+            return String.format("%d events, %d refreshes: ingest %.0f B/event (budget %s), filter/render %.0f B/event (budget %s),"
+                            + " document %.0f B/event (budget %s), EDT per refresh p50 %.2f ms p99 %.2f ms (%s)",
+                    events, refreshNanos.size(), ingestBytesPerEvent(), budget.getProperty("ingest.bytesPerEvent"),
+                    renderBytesPerEvent(), budget.getProperty("render.bytesPerEvent"),
+                    documentBytesPerEvent(), budget.getProperty("document.bytesPerEvent"),
+                    refreshMillis(50), refreshMillis(99), enforceEdtTime ? "budget " + budget.getProperty("refresh.edtMillis.p50")
+                            + " / " + budget.getProperty("refresh.edtMillis.p99") + " ms" : "reported only");
+        }
+    }
+
+    private static Result analyze(Path jfrFile, int events) throws IOException {
+        long ingestBytes = 0;
+        long renderBytes = 0;
+        long edtBytes = 0;
+        Map<Integer, Long> refreshNanos = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile)) {
+            String type = event.getEventType().getName();
+            if (type.equals("com.picoedge.ai_tools.IngestBatch")) {
+                ingestBytes += event.getLong("allocatedBytes");
+            } else if (type.equals("com.picoedge.ai_tools.RenderStep")) {
+                renderBytes += event.getLong("allocatedBytes");
+            } else if (type.equals("com.picoedge.ai_tools.EdtDispatch") && event.getInt("refresh") >= 0) {
+                edtBytes += event.getLong("allocatedBytes");
+                refreshNanos.merge(event.getInt("refresh"), event.getDuration().toNanos(), Long::sum);
+            }
+        }
+        return new Result(events, ingestBytes, renderBytes, edtBytes, new ArrayList<>(refreshNanos.values()));
+    }
+
+    // Sums sampled allocation weight by the first plugin frame below this harness, falling back to the top frame
+    private static List<String> topAllocationSites(Path jfrFile, int limit) throws IOException {
+        Map<String, Long> weightBySite = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile)) {
+            if (!event.getEventType().getName().equals("jdk.ObjectAllocationSample") || event.getStackTrace() == null) {
+                continue;
+            }
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            RecordedFrame site = frames.isEmpty() ? null : frames.get(0);
+            for (RecordedFrame frame : frames) {
+                String type = frame.getMethod().getType().getName();
+                if (type.startsWith("com.picoedge.ai_tools.") && !type.startsWith(AllocationBudgetCheck.class.getName())) {
+                    site = frame;
+                    break;
+                }
+            }
+            if (site != null) {
+                String key = site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber()
+                        + " (" + event.getClass("objectClass").getName() + ")";
+                weightBySite.merge(key, event.getLong("weight"), Long::sum);
+            }
+        }
+        return weightBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> String.format("%,12d B  %s", entry.getValue(), entry.getKey()))
+                .toList();
+    }
+}
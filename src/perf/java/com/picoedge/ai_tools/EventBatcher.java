@@ -0,0 +1,62 @@
+package com.picoedge.ai_tools;
+
+import java.util.function.Consumer;
+
+// Producer-side coalescing of events into newline-delimited JSON frames, the batch format the logger decodes in one
+// pass. A frame is sent once adding the next event would exceed maxBatchBytes, or lingerMillis after its first event
+// was buffered, whichever comes first; an event larger than maxBatchBytes goes out as a frame of its own.
+// There is no timer thread: the sending loop calls flushIfDue() between events, as LoadGenerator does.
+public class EventBatcher {
+    private final int maxBatchBytes;
+    private final long lingerNanos;
+    private final Consumer<String> sender;
+    private final StringBuilder buffer = new StringBuilder();
+    private int buffered = 0;
+    private long firstBufferedNanos = 0;
+    private long framesSent = 0;
+    private long eventsSent = 0;
+
+    public EventBatcher(int maxBatchBytes, long lingerMillis, Consumer<String> sender) {
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = lingerMillis * 1_000_000L;
+        this.sender = sender;
+    }
+
+    // Events are single-line JSON objects; their length in chars stands in for bytes, exact for ASCII payloads
+    public synchronized void add(String event) {
+        if (buffered > 0 && buffer.length() + 1 + event.length() > maxBatchBytes) {
+            flush();
+        }
+        if (buffered == 0) {
+            firstBufferedNanos = System.nanoTime();
+        } else {
+            buffer.append('\n');
+        }
+        buffer.append(event);
+        buffered++;
+        if (buffer.length() >= maxBatchBytes) {
+            flush();
+        }
+    }
+
+    public synchronized void flushIfDue() {
+        if (buffered > 0 && System.nanoTime() - firstBufferedNanos >= lingerNanos) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        sender.accept(buffer.toString());
+        framesSent++;
+        eventsSent += buffered;
+        buffer.setLength(0);
+        buffered = 0;
+    }
+
+    public synchronized double eventsPerFrame() {
+        return framesSent == 0 ? 0 : (double) eventsSent / framesSent;
+    }
+}
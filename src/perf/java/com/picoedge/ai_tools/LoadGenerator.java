@@ -0,0 +1,420 @@
+package com.picoedge.ai_tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+// Synthetic LogEvent load for end-to-end throughput testing of the AI Logger, run via ./gradlew loadGenerator.
+//
+// Target mode (default) connects to the local WebSocketServerImpl (or any logger server at --target) and publishes
+// events; a second "observer" connection receives what the server forwards, which on the local server happens only
+// after the pane's message handler returned, so observer latency and loss include the plugin's ingest path.
+// Serve mode (--serve=PORT) plays the remote logger server the plugin's client connects to via wsUrl; there is no
+// return path, so saturation shows up as the per-connection send queue growing instead.
+// --batch-bytes sends events as NDJSON batch frames through an EventBatcher instead of one frame per event.
+public class LoadGenerator {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SEQ_FIELD = "\"loadSeq\":";
+    private static final String SENT_FIELD = "\"sentNanos\":";
+
+    private final Map<String, String> options;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Random random = new Random(1065);
+    private final String[] templates;
+    private final LongAdder received = new LongAdder();
+    private final PipelineMetrics.Histogram latency = new PipelineMetrics.Histogram();
+    private final Set<WebSocket> servedConnections = ConcurrentHashMap.newKeySet();
+    private WebSocketClient sender;
+    private final EventBatcher batcher; // Null when every event is its own frame
+    private long seq = 0;
+
+    LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.templates = buildTemplates();
+        int batchBytes = (int) doubleOption("batch-bytes", 0);
+        this.batcher = batchBytes > 0 ? new EventBatcher(batchBytes, (long) doubleOption("linger-ms", 5), this::send) : null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || !arg.startsWith("--")) {
+                printUsage();
+                return;
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private static void printUsage() {
+        System.out.println(String.join("\n",
+                "Options (all optional):",
+                "  --target=ws://localhost:1065   logger server to publish to (the plugin's local server by default)",
+                "  --serve=PORT                   instead act as the server the plugin's client connects to (set wsUrl to ws://localhost:PORT)",
+                "  --rate=1000                    events per second, or the starting rate when ramping",
+                "  --duration=30                  seconds to run at --rate without --ramp",
+                "  --ramp                         multiply the rate by --ramp-factor every --step-seconds until drops or latency appear",
+                "  --ramp-factor=1.5  --step-seconds=5",
+                "  --max-latency-ms=250  --max-drop=0.001  --max-queue=10000   saturation thresholds for --ramp",
+                "  --batch-bytes=0  --linger-ms=5 send NDJSON frames of up to this many bytes, flushed after linger-ms (0 = one event per frame)",
+                "  --payload=256                  approximate bytes of description plus data per event",
+                "  --levels=Trace:1,Debug:2,Info:6,Warning:2,Error:1   level mix as name:weight",
+                "  --stacktrace-ratio=0.05        share of events carrying a 20-frame stack trace",
+                "  --sources=8  --devices=4  --correlations=64  --categories=4",
+                "  --category-prefix=test.websocket.load   matches the plugin client's test.websocket subscription"));
+    }
+
+    private void run() throws Exception {
+        connect();
+        double rate = doubleOption("rate", 1000);
+        if (!options.containsKey("ramp")) {
+            StepResult result = runStep(rate, (long) (doubleOption("duration", 30) * 1e9));
+            System.out.println("Sustained: " + Math.round(result.achievedRate) + " events/s (" + result + ")");
+        } else {
+            long stepNanos = (long) (doubleOption("step-seconds", 5) * 1e9);
+            double factor = doubleOption("ramp-factor", 1.5);
+            StepResult sustained = null;
+            while (true) {
+                StepResult result = runStep(rate, stepNanos);
+                String saturation = result.saturation();
+                if (saturation != null) {
+                    System.out.println("Saturated at " + Math.round(rate) + " events/s: " + saturation);
+                    break;
+                }
+                sustained = result;
+                rate *= factor;
+            }
+            System.out.println(sustained == null
+                    ? "Sustained: none, the starting rate already saturated; lower --rate"
+                    : "Sustained: " + Math.round(sustained.achievedRate) + " events/s (" + sustained + ")");
+        }
+        shutdown();
+    }
+
+    private void connect() throws Exception {
+        if (options.containsKey("serve")) {
+            int port = Integer.parseInt(options.get("serve"));
+            CountDownLatch pluginConnected = new CountDownLatch(1);
+            WebSocketServer server = new WebSocketServer(new InetSocketAddress("localhost", port)) {
+                @Override
+                public void onOpen(WebSocket conn, ClientHandshake handshake) {
+                    servedConnections.add(conn);
+                    System.out.println("Plugin connected: " + handshake.getResourceDescriptor());
+                    pluginConnected.countDown();
+                }
+
+                @Override
+                public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+                    servedConnections.remove(conn);
+                }
+
+                @Override
+                public void onMessage(WebSocket conn, String message) {
+                    // Subscription requests and pings from the plugin need no reply
+                }
+
+                @Override
+                public void onError(WebSocket conn, Exception ex) {
+                    System.err.println("Server error: " + ex.getMessage());
+                }
+
+                @Override
+                public void onStart() {
+                    System.out.println("Waiting for the plugin to connect to ws://localhost:" + port + " (set its wsUrl there)");
+                }
+            };
+            server.setReuseAddr(true);
+            server.start();
+            pluginConnected.await();
+            return;
+        }
+        URI target = URI.create(options.getOrDefault("target", "ws://localhost:1065"));
+        WebSocketClient observer = new WebSocketClient(target) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+                // Same filter as the plugin's own client, so a remote logger server forwards the generated events
+                send("{\"action\":\"subscribe\",\"filter\":{\"level\":255,\"category\":[\"test.websocket\"],\"excludeCategory\":[]},\"subId\":\""
+                        + UUID.randomUUID() + "\",\"deviceId\":\"loadgen-observer-" + runId + "\"}");
+            }
+
+            @Override
+            public void onMessage(String message) {
+                observe(message);
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                System.err.println("Observer error: " + ex.getMessage());
+            }
+        };
+        sender = new WebSocketClient(target) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                System.err.println("Sender disconnected: code=" + code + ", reason=" + reason);
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                System.err.println("Sender error: " + ex.getMessage());
+            }
+        };
+        // Nagle would add up to a delayed-ACK interval to every measured latency at low rates
+        observer.setTcpNoDelay(true);
+        sender.setTcpNoDelay(true);
+        if (!observer.connectBlocking(5, TimeUnit.SECONDS) || !sender.connectBlocking(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Could not connect to " + target + "; is the AI Logger's local server running?");
+        }
+        System.out.println("Connected to " + target + ", run id " + runId);
+    }
+
+    // Only our own events carry loadSeq/sentNanos; everything else the server forwards is ignored
+    private void observe(String message) {
+        int seqAt = message.indexOf(SEQ_FIELD);
+        int sentAt = message.indexOf(SENT_FIELD);
+        if (seqAt < 0 || sentAt < 0 || !message.contains("\"lg-" + runId + "-")) {
+            return;
+        }
+        int start = sentAt + SENT_FIELD.length();
+        int end = start;
+        while (end < message.length() && Character.isDigit(message.charAt(end))) {
+            end++;
+        }
+        latency.record(System.nanoTime() - Long.parseLong(message.substring(start, end)));
+        received.increment();
+    }
+
+    private StepResult runStep(double rate, long durationNanos) {
+        received.reset();
+        latency.reset();
+        long intervalNanos = (long) (1e9 / rate);
+        long sent = 0;
+        long peakQueue = 0;
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long next = start;
+        long nextReport = start + 1_000_000_000L;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            // Catch up on everything due, but never burst more than 100 ms worth after a stall
+            next = Math.max(next, now - 100_000_000L);
+            while (next <= now) {
+                publish(nextMessage());
+                sent++;
+                next += intervalNanos;
+            }
+            if (batcher != null) {
+                batcher.flushIfDue();
+            }
+            if (now >= nextReport) {
+                peakQueue = Math.max(peakQueue, queuedFrames());
+                nextReport += 1_000_000_000L;
+            }
+            LockSupport.parkNanos(Math.min(next - now, 1_000_000L));
+        }
+        if (batcher != null) {
+            batcher.flush();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long drainUntil = System.nanoTime() + 2_000_000_000L; // Grace period for in-flight events
+        while (sender != null && received.sum() < sent && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(10_000_000L);
+        }
+        peakQueue = Math.max(peakQueue, queuedFrames());
+        StepResult result = new StepResult(rate, sent / elapsedSeconds, sent, sender != null ? received.sum() : -1,
+                latency.percentileMicros(50) / 1000, latency.percentileMicros(99) / 1000, peakQueue);
+        System.out.println(batcher == null ? result : result + String.format(", %.1f events/frame", batcher.eventsPerFrame()));
+        return result;
+    }
+
+    private void publish(String event) {
+        if (batcher != null) {
+            batcher.add(event);
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(String message) {
+        if (sender != null) {
+            sender.send(message);
+        } else {
+            for (WebSocket conn : servedConnections) {
+                conn.send(message);
+            }
+        }
+    }
+
+    private long queuedFrames() {
+        long queued = 0;
+        if (sender != null) {
+            queued = ((WebSocketImpl) sender.getConnection()).outQueue.size();
+        } else {
+            for (WebSocket conn : servedConnections) {
+                queued = Math.max(queued, ((WebSocketImpl) conn).outQueue.size());
+            }
+        }
+        return queued;
+    }
+
+    // Per-event fields are spliced in front of a pre-serialized body so generation stays cheap at high rates
+    String nextMessage() {
+        long n = seq++;
+        String body = templates[(int) (n % templates.length)];
+        return "{" + SEQ_FIELD + n + "," + SENT_FIELD + System.nanoTime() + ",\"id\":\"lg-" + runId + "-" + n
+                + "\",\"timestamp\":" + System.currentTimeMillis() + "," + body.substring(1);
+    }
+
+    // Event bodies in the shape NewEntryDialog sends, without id and timestamp
+    private String[] buildTemplates() {
+        int payload = (int) doubleOption("payload", 256);
+        int sources = (int) doubleOption("sources", 8);
+        int devices = (int) doubleOption("devices", 4);
+        int correlations = (int) doubleOption("correlations", 64);
+        int categories = (int) doubleOption("categories", 4);
+        String categoryPrefix = options.getOrDefault("category-prefix", "test.websocket.load");
+        double stacktraceRatio = doubleOption("stacktrace-ratio", 0.05);
+        int[] levels = levelMix(options.getOrDefault("levels", "Trace:1,Debug:2,Info:6,Warning:2,Error:1"));
+        String[] result = new String[1024];
+        for (int i = 0; i < result.length; i++) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("level", levels[random.nextInt(levels.length)]);
+            event.put("category", categoryPrefix + "." + random.nextInt(categories));
+            event.put("description", filler("Synthetic load event " + i + " ", payload / 2));
+            event.put("source", "loadgen-" + random.nextInt(sources));
+            event.put("correlationId", "corr-" + random.nextInt(correlations));
+            event.put("title", "Load " + i);
+            event.put("code", 2000 + random.nextInt(100));
+            event.put("data", Map.of("payload", filler("x", payload - payload / 2), "index", i));
+            event.put("deviceId", "device-" + random.nextInt(devices));
+            boolean includeStacktrace = random.nextDouble() < stacktraceRatio;
+            event.put("includeStacktrace", includeStacktrace);
+            event.put("destinationFilter", Map.of("include", Arrays.asList(4, 7)));
+            if (includeStacktrace) {
+                List<Map<String, String>> stacktrace = new ArrayList<>();
+                for (int f = 0; f < 20; f++) {
+                    stacktrace.add(Map.of("line", "com.example.load.Worker" + f + ".run(Worker" + f + ".java:" + (f + 10) + ")"));
+                }
+                event.put("stacktrace", stacktrace);
+            }
+            try {
+                result[i] = MAPPER.writeValueAsString(event);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return result;
+    }
+
+    // Expands "Info:6,Error:1" into a weighted array of level values
+    private static int[] levelMix(String spec) {
+        List<Integer> weighted = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] nameWeight = part.trim().split(":");
+            int value = LogProcessor.LogLevel.valueOf(nameWeight[0]).getValue();
+            int weight = nameWeight.length > 1 ? Integer.parseInt(nameWeight[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                weighted.add(value);
+            }
+        }
+        return weighted.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String filler(String seed, int length) {
+        StringBuilder text = new StringBuilder(Math.max(length, seed.length()));
+        while (text.length() < length) {
+            text.append(seed);
+        }
+        return text.toString();
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private void shutdown() throws InterruptedException {
+        if (sender != null) {
+            sender.closeBlocking();
+        }
+        System.exit(0); // Also stops the observer and serve-mode server threads
+    }
+
+    private class StepResult {
+        final double targetRate;
+        final double achievedRate;
+        final long sent;
+        final long received; // -1 in serve mode, where nothing comes back
+        final double p50Millis;
+        final double p99Millis;
+        final long peakQueue;
+
+        StepResult(double targetRate, double achievedRate, long sent, long received, double p50Millis, double p99Millis, long peakQueue) {
+            this.targetRate = targetRate;
+            this.achievedRate = achievedRate;
+            this.sent = sent;
+            this.received = received;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.peakQueue = peakQueue;
+        }
+
+        // Null while the step kept up; otherwise the first threshold that was crossed
+        String saturation() {
+            if (achievedRate < 0.95 * targetRate) {
+                return "generator only reached " + Math.round(achievedRate) + " events/s";
+            }
+            if (received >= 0 && sent > 0 && (sent - received) / (double) sent > doubleOption("max-drop", 0.001)) {
+                return (sent - received) + " of " + sent + " events not delivered";
+            }
+            if (received >= 0 && p99Millis > doubleOption("max-latency-ms", 250)) {
+                return "p99 latency " + String.format("%.1f", p99Millis) + " ms";
+            }
+            if (peakQueue > doubleOption("max-queue", 10000)) {
+                return peakQueue + " frames queued for sending";
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("target %.0f/s, sent %.0f/s (%d), received %s, latency p50 %s p99 %s, peak send queue %d",
+                    targetRate, achievedRate, sent, received < 0 ? "n/a" : String.valueOf(received),
+                    received < 0 ? "n/a" : String.format("%.2f ms", p50Millis), received < 0 ? "n/a" : String.format("%.2f ms", p99Millis), peakQueue);
+        }
+    }
+}
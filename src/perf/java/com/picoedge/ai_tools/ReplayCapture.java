@@ -0,0 +1,95 @@
+package com.picoedge.ai_tools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Headless counterpart of the pane's replay button, run via ./gradlew replayCapture: plays a SessionRecorder capture
+// through a fresh LogProcessor -> LogFilter -> LogDisplay pipeline, rendering the newly arrived events at most
+// --refresh-hz times per second the way LogPane's incremental refresh does, and prints the stage latencies.
+// --repeat runs the capture again on a new pipeline each time, so the later runs show JIT-warm numbers.
+public class ReplayCapture {
+    private static final Set<Integer> ALL_LEVELS = Set.of(1, 2, 4, 8, 16, 32, 64, 128);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || !arg.startsWith("--")) {
+                printUsage();
+                return;
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        String capture = options.get("capture");
+        if (capture == null || !Files.isReadable(Path.of(capture))) {
+            printUsage();
+            return;
+        }
+        double speed = SessionReplayer.parseSpeed(options.getOrDefault("speed", "max"));
+        int refreshHz = Integer.parseInt(options.getOrDefault("refresh-hz", String.valueOf(RefreshScheduler.DEFAULT_MAX_REFRESHES_PER_SECOND)));
+        int maxLogs = Integer.parseInt(options.getOrDefault("max-logs", "10000"));
+        int repeat = Integer.parseInt(options.getOrDefault("repeat", "1"));
+        for (int run = 1; run <= repeat; run++) {
+            replayOnce(Path.of(capture), speed, refreshHz, maxLogs, run);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println(String.join("\n",
+                "Options:",
+                "  --capture=FILE        session capture recorded with the pane's Rec button (required)",
+                "  --speed=max           1x keeps the recorded timing, Nx plays N times faster, max feeds without pauses",
+                "  --refresh-hz=20       incremental renders per second, as COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_REFRESH_HZ",
+                "  --max-logs=10000      store capacity, as COM_PICOEDGE_AI_TOOLS_LOGGER_MAX_LOGS",
+                "  --repeat=1            replay the capture this many times, each into a fresh pipeline"));
+    }
+
+    private static void replayOnce(Path capture, double speed, int refreshHz, int maxLogs, int run) throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.setTimingEnabled(true);
+        LogProcessor logProcessor = new LogProcessor(() -> { }, metrics);
+        logProcessor.setMaxLogs(maxLogs);
+        LogFilter logFilter = new LogFilter();
+        LogDisplay logDisplay = new LogDisplay();
+        long refreshIntervalNanos = 1_000_000_000L / Math.max(1, refreshHz);
+        long[] renderState = {0, System.nanoTime()}; // next unrendered store index, last render time
+        Runnable render = () -> {
+            long start = metrics.start();
+            List<LogProcessor.LogEvent> arrived = logProcessor.getLogsSince(renderState[0]);
+            if (!arrived.isEmpty()) {
+                renderState[0] = arrived.get(arrived.size() - 1).getStoreIndex() + 1;
+                long filterStart = metrics.start();
+                List<LogProcessor.LogEvent> fresh = List.copyOf(logFilter.filterLogs(arrived, ALL_LEVELS, Set.of(), true,
+                        "", "", "", "", new long[]{0, Long.MAX_VALUE}));
+                metrics.stop(metrics.filter, filterStart);
+                long renderStart = metrics.start();
+                logDisplay.generateLogFragments(fresh);
+                metrics.stop(metrics.render, renderStart);
+                metrics.traceRendered(fresh);
+            }
+            metrics.stop(metrics.refresh, start);
+            renderState[1] = System.nanoTime();
+        };
+        SessionReplayer.Result result = SessionReplayer.replay(capture, speed, (message, receivedNanos) -> {
+            logProcessor.processMessage(message, receivedNanos, category -> { }, source -> { });
+            if (receivedNanos - renderState[1] >= refreshIntervalNanos) {
+                render.run();
+            }
+        }, () -> false);
+        render.run();
+        System.out.printf("run %d: %d messages in %.2f s = %.0f msg/s (recorded span %.2f s, max lag %.1f ms), stored=%d parseFailures=%d dedupHits=%d evictions=%d%n",
+                run, result.messages(), result.elapsedNanos() / 1e9, result.messagesPerSecond(), result.capturedNanos() / 1e9,
+                result.maxLagNanos() / 1e6, metrics.getEventsStored(), metrics.getParseFailures(), metrics.getDedupHits(), metrics.getEvictions());
+        System.out.printf("  parse   p50=%.1fus p99=%.1fus%n", metrics.getParseP50Micros(), metrics.getParseP99Micros());
+        System.out.printf("  filter  p50=%.1fus p99=%.1fus%n", metrics.getFilterP50Micros(), metrics.getFilterP99Micros());
+        System.out.printf("  render  p50=%.1fus p99=%.1fus%n", metrics.getRenderP50Micros(), metrics.getRenderP99Micros());
+        System.out.printf("  refresh p50=%.1fus p99=%.1fus%n", metrics.getRefreshP50Micros(), metrics.getRefreshP99Micros());
+        for (String stage : metrics.getTraceLatencies()) {
+            System.out.println("  " + stage);
+        }
+    }
+}